@@ -0,0 +1,48 @@
+#!/bin/sh
+# Compares the time from JVM launch to the first successful HTTP response with and
+# without the class data sharing archive.
+#
+# Usage: cds/measure.sh [runs, default 5] [application arguments...]
+# Environment: PROBE_URL (default: signup availability check, a cheap public GET)
+#
+# The application needs MySQL to start, and the probe queries it as well until the
+# signup Bloom filter has loaded, so the database must be running for every run.
+set -e
+
+RUNS=${1:-5}
+[ $# -gt 0 ] && shift
+PROBE_URL=${PROBE_URL:-http://localhost:8080/api/auth/signup/availability?username=cds-probe}
+RUN_SH=$(dirname "$0")/run.sh
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+measure() {
+  mode=$1
+  shift
+  total=0
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    CDS=$mode "$RUN_SH" "$@" --startup.report.enabled=false > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$PROBE_URL"; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "Application exited before answering $PROBE_URL" >&2
+        exit 1
+      fi
+      sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "  CDS $mode, run $((i + 1)): $elapsed ms"
+    total=$((total + elapsed))
+    i=$((i + 1))
+  done
+  echo "CDS $mode: average time to first response $((total / RUNS)) ms"
+}
+
+measure off "$@"
+measure on "$@"
@@ -0,0 +1,17 @@
+#!/bin/sh
+# Starts the application from the thin jar built by "mvn -Pcds package", using the
+# class data sharing archive if there is one. The JVM and the jars must be exactly
+# the ones used for the training run, otherwise the archive is ignored (with a warning).
+#
+# Usage: cds/run.sh [application arguments...]
+set -e
+
+CDS_DIR=${CDS_DIR:-$(dirname "$0")/../target/cds}
+JAR=$(ls "$CDS_DIR"/*-cds.jar | head -n 1)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+SHARE_OPTS=""
+if [ -f "$CDS_DIR/app.jsa" ] && [ "${CDS:-on}" != "off" ]; then
+  SHARE_OPTS="-XX:SharedArchiveFile=$CDS_DIR/app.jsa -Xshare:auto"
+fi
+
+exec "$JAVA" $SHARE_OPTS $JAVA_OPTS -jar "$JAR" "$@"
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Records the classes loaded while the application starts into a class data sharing
+# archive, next to the thin jar built by "mvn -Pcds package".
+#
+# Usage: cds/train.sh [cds directory, default target/cds]
+#
+# The training run stops right after the context has started (startup.training-run),
+# before any request is served. The schema update and JDBC metadata lookup are
+# disabled, so no database needs to be reachable.
+set -e
+
+CDS_DIR=${1:-target/cds}
+JAR=$(ls "$CDS_DIR"/*-cds.jar | head -n 1)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+TRAINING_ARGS="--startup.training-run=true --startup.report.enabled=false \
+ --spring.jpa.hibernate.ddl-auto=none --spring.datasource.initialization-mode=never \
+ --spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false"
+
+JAVA_MAJOR=$("$JAVA" -version 2>&1 | sed -n 's/.*version "\([0-9]*\)\.\{0,1\}\([0-9]*\).*/\1 \2/p' | \
+  awk '{ print ($1 == 1) ? $2 : $1 }')
+
+cd "$CDS_DIR"
+rm -f app.jsa app.classlist
+if [ "$JAVA_MAJOR" -ge 13 ]; then
+  # Dynamic archive of everything loaded on top of the JDK's default archive
+  "$JAVA" -XX:ArchiveClassesAtExit=app.jsa -jar "$(basename "$JAR")" $TRAINING_ARGS
+elif [ "$JAVA_MAJOR" -ge 10 ]; then
+  # Static AppCDS archive from a class list
+  "$JAVA" -XX:DumpLoadedClassList=app.classlist -jar "$(basename "$JAR")" $TRAINING_ARGS
+  "$JAVA" -Xshare:dump -XX:SharedClassListFile=app.classlist -XX:SharedArchiveFile=app.jsa \
+    -cp "$(basename "$JAR")"
+else
+  echo "Application class data sharing needs Java 10 or newer, skipping the archive" >&2
+  exit 0
+fi
+echo "Wrote $CDS_DIR/app.jsa"
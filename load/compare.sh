@@ -0,0 +1,60 @@
+#!/bin/sh
+# Compares the blocking PostController and CommentsController reads with their
+# /api/async counterparts under the same load, using wrk against a running instance.
+# Each pair runs back to back with identical settings; the results are printed and
+# appended to RESULTS with the date and settings, so runs can be compared later.
+#
+# The async reads only pay off once Tomcat's request threads are the bottleneck, so
+# start the application with fewer threads than CONNECTIONS, e.g.
+# --server.tomcat.max-threads=20.
+#
+# Usage: load/compare.sh [post id, default 1] [subreddit id, default 1]
+# Environment: BASE_URL (default http://localhost:8080), CONNECTIONS (200), THREADS (4),
+#              DURATION (30s), TOKEN (bearer token, the comment reads need a login),
+#              RESULTS (default target/load-compare.txt)
+set -e
+
+POST_ID=${1:-1}
+SUBREDDIT_ID=${2:-1}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+CONNECTIONS=${CONNECTIONS:-200}
+THREADS=${THREADS:-4}
+DURATION=${DURATION:-30s}
+RESULTS=${RESULTS:-target/load-compare.txt}
+
+if ! command -v wrk > /dev/null; then
+  echo "wrk is required, see https://github.com/wg/wrk" >&2
+  exit 1
+fi
+mkdir -p "$(dirname "$RESULTS")"
+
+run() {
+  path=$1
+  if [ -n "$TOKEN" ]; then
+    output=$(wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency \
+      -H "Authorization: Bearer $TOKEN" "$BASE_URL$path")
+  else
+    output=$(wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "$BASE_URL$path")
+  fi
+  rps=$(echo "$output" | awk '/Requests\/sec/ { print $2 }')
+  p50=$(echo "$output" | awk '$1 == "50%" { print $2 }')
+  p99=$(echo "$output" | awk '$1 == "99%" { print $2 }')
+  errors=$(echo "$output" | awk '/Non-2xx|Socket errors/ { printf "%s ", $0 }')
+  printf '%-40s %10s req/s  p50 %8s  p99 %8s  %s\n' "$path" "$rps" "$p50" "$p99" "$errors" | tee -a "$RESULTS"
+}
+
+compare() {
+  run "$1"
+  run "$2"
+}
+
+echo "$(date -u +%Y-%m-%dT%H:%M:%SZ) $BASE_URL connections=$CONNECTIONS threads=$THREADS duration=$DURATION" \
+  | tee -a "$RESULTS"
+compare "/api/posts" "/api/async/posts"
+compare "/api/posts/$POST_ID" "/api/async/posts/$POST_ID"
+compare "/api/posts/by-subreddit/$SUBREDDIT_ID" "/api/async/posts/by-subreddit/$SUBREDDIT_ID"
+if [ -n "$TOKEN" ]; then
+  compare "/api/comments/by-post/$POST_ID" "/api/async/comments/by-post/$POST_ID"
+else
+  echo "Skipping the comment reads, set TOKEN to include them" | tee -a "$RESULTS"
+fi
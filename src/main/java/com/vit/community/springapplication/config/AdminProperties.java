@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* The users who are granted the ADMIN authority, bound from the admin.usernames property.
+* Admins can call the /api/admin endpoints (exports, imports and maintenance jobs).
+* */
+
+@Data
+@Component
+@ConfigurationProperties("admin")
+public class AdminProperties {
+    private List<String> usernames = new ArrayList<>();
+}
@@ -0,0 +1,71 @@
+package com.vit.community.springapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+/*
+* Configures the executor used by the non-blocking read API.
+*
+* Database reads are handed off to this dedicated pool so that Tomcat request threads
+* are released while JDBC calls are in flight. The pool should not be larger than the
+* connection pool, as extra threads would only wait for a connection. When the queue
+* is full further requests are rejected instead of piling up.
+*
+* The executor propagates the SecurityContext so that mappers can still see the
+* logged in user.
+*
+* Declaring an executor bean switches off Spring Boot's default one, so the default
+* executor used by @Async and Spring MVC async requests is declared here as well.
+* In virtual thread mode it runs the tasks on a fixed number of virtual threads with a
+* bounded queue, so that bursts of mails cannot open unbounded SMTP and database
+* connections. A full queue rejects the task instead of blocking the caller.
+* */
+
+@Configuration
+@Slf4j
+public class AsyncConfig {
+
+    @Bean(name = {"taskExecutor", "applicationTaskExecutor"})
+    public AsyncTaskExecutor taskExecutor(TaskExecutorBuilder taskExecutorBuilder,
+                                          @Value("${threads.virtual.enabled}") boolean virtualThreads,
+                                          @Value("${threads.virtual.async-concurrency-limit}") int concurrencyLimit,
+                                          @Value("${threads.virtual.async-queue-capacity}") int queueCapacity) {
+        if (virtualThreads && VirtualThreads.isSupported()) {
+            log.info("@Async tasks run on virtual threads, at most {} at a time and {} queued",
+                    concurrencyLimit, queueCapacity);
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadFactory(VirtualThreads.threadFactory("async-virtual-"));
+            executor.setCorePoolSize(concurrencyLimit);
+            executor.setMaxPoolSize(concurrencyLimit);
+            executor.setQueueCapacity(queueCapacity);
+            executor.setWaitForTasksToCompleteOnShutdown(true);
+            return executor;
+        }
+        return taskExecutorBuilder.build();
+    }
+
+//    Registered as a bean of its own so that the container initializes it and shuts it down with the context.
+    @Bean
+    public ThreadPoolTaskExecutor dbReadPool(@Value("${async.read.pool-size}") int poolSize,
+                                             @Value("${async.read.queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("db-read-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Bean
+    public AsyncTaskExecutor dbReadExecutor(@Qualifier("dbReadPool") ThreadPoolTaskExecutor dbReadPool) {
+        return new DelegatingSecurityContextAsyncTaskExecutor(dbReadPool);
+    }
+}
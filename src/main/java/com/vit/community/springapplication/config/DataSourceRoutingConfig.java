@@ -0,0 +1,113 @@
+package com.vit.community.springapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+* Replaces the auto-configured DataSource with a read/write routing one when
+* datasource.routing.enabled=true.
+*
+* The primary pool is still configured through spring.datasource.* and
+* spring.datasource.hikari.*. Every replica pool is registered as a bean named
+* replicaDataSource<n>, so that it is closed on shutdown and the prod profile sizes and
+* checks it like the primary. Replica pools take the spring.datasource.hikari.* settings
+* as well, with the url, credentials and pool size of datasource.routing.*, and a short
+* connection timeout so that reads do not wait long for a dead replica before the routing
+* falls back to the primary.
+* Every service method marked @Transactional(readOnly = true) then reads from a replica.
+* */
+
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    static final String REPLICA_BEAN_PREFIX = "replicaDataSource";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public static BeanDefinitionRegistryPostProcessor replicaDataSourceRegistrar(Environment environment) {
+        return new BeanDefinitionRegistryPostProcessor() {
+            @Override
+            public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                Binder binder = Binder.get(environment);
+                ReplicaRoutingProperties properties = binder.bind("datasource.routing", ReplicaRoutingProperties.class)
+                        .orElseGet(ReplicaRoutingProperties::new);
+                for (int i = 0; i < properties.getReplicas().size(); i++) {
+                    int index = i;
+                    AbstractBeanDefinition definition = BeanDefinitionBuilder.genericBeanDefinition(HikariDataSource.class,
+                            () -> replicaDataSource(index, properties, binder, environment))
+                            .setDestroyMethodName("close")
+                            .getBeanDefinition();
+                    registry.registerBeanDefinition(REPLICA_BEAN_PREFIX + i, definition);
+                }
+            }
+
+            @Override
+            public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 Map<String, HikariDataSource> hikariDataSources,
+                                 ReplicaRoutingProperties routingProperties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < routingProperties.getReplicas().size(); i++) {
+            replicas.add(hikariDataSources.get(REPLICA_BEAN_PREFIX + i));
+        }
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                routingProperties.getStickinessMs(), routingProperties.getReplicaRetryMs()));
+    }
+
+    private static HikariDataSource replicaDataSource(int index, ReplicaRoutingProperties properties,
+                                                      Binder binder, Environment environment) {
+        ReplicaRoutingProperties.Replica replica = properties.getReplicas().get(index);
+        HikariDataSource dataSource = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("replica-" + index);
+        String driverClassName = environment.getProperty("spring.datasource.driver-class-name");
+        if (driverClassName != null) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(properties.getReplicaPoolSize());
+        dataSource.setConnectionTimeout(properties.getReplicaConnectionTimeoutMs());
+        dataSource.setReadOnly(true);
+//        Do not fail startup if a replica is down, the routing falls back to the primary.
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,36 @@
+package com.vit.community.springapplication.config;
+
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+
+/*
+* Points the JCache region factory of the second-level cache at ehcache.xml.
+*
+* Ehcache turns the configured URI into a URL, which only works for absolute URIs, so
+* a relative "ehcache.xml" in the properties fails the EntityManagerFactory at startup.
+* The file is therefore resolved on the classpath here, inside the jar as well.
+* */
+
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String CACHE_CONFIG = "ehcache.xml";
+
+    @Bean
+    public HibernatePropertiesCustomizer jcacheConfigUriCustomizer() {
+        return properties -> {
+            try {
+//                JCacheRegionFactory reads the setting as a String.
+                properties.put(ConfigSettings.CONFIG_URI, new ClassPathResource(CACHE_CONFIG).getURI().toString());
+            } catch (IOException e) {
+                throw new SpringCommunityException("Could not find the cache configuration " + CACHE_CONFIG, e);
+            }
+        };
+    }
+}
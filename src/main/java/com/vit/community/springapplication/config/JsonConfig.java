@@ -0,0 +1,23 @@
+package com.vit.community.springapplication.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+* Jackson configuration. Spring Boot registers every Module bean with the shared
+* ObjectMapper, which is used by the HTTP message converters and the JsonArrayWriter.
+*
+* Afterburner generates bytecode for the getters and setters of our DTOs, so
+* serialization of large lists no longer goes through reflection.
+* */
+
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -0,0 +1,101 @@
+package com.vit.community.springapplication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.Properties;
+
+/*
+* Connection pool tuning for the "prod" profile (see application-prod.properties).
+*
+* The pool size is derived from the number of CPU cores and the expected ratio of
+* time a request spends waiting on MySQL versus computing:
+*
+*     size = cores * (1 + dbLatency / cpuTime), clamped to [minimum, maximum]
+*
+* At startup a self-check logs the configuration of every Hikari pool in use and
+* warns about settings which should not reach production.
+* */
+
+@Configuration
+@Profile("prod")
+@Slf4j
+public class ProductionDataSourceConfig {
+
+    private static final String[] STATEMENT_CACHE_PROPERTIES = {"cachePrepStmts", "useServerPrepStmts",
+            "prepStmtCacheSize", "prepStmtCacheSqlLimit"};
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    HikariDataSource dataSource = (HikariDataSource) bean;
+                    int poolSize = computePoolSize(environment);
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static int computePoolSize(Environment environment) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double latency = environment.getProperty("pool.sizing.expected-db-latency-ms", Double.class, 5d);
+        double cpuTime = environment.getProperty("pool.sizing.expected-cpu-time-ms", Double.class, 5d);
+        int minimum = environment.getProperty("pool.sizing.minimum", Integer.class, 4);
+        int maximum = environment.getProperty("pool.sizing.maximum", Integer.class, 50);
+        int size = (int) Math.ceil(cores * (1 + latency / Math.max(cpuTime, 0.1)));
+        return Math.max(minimum, Math.min(maximum, size));
+    }
+
+    @Bean
+    public PoolSelfCheck poolSelfCheck(Map<String, HikariDataSource> dataSources, Environment environment) {
+        return new PoolSelfCheck(dataSources, environment);
+    }
+
+    public static class PoolSelfCheck {
+
+        private final Map<String, HikariDataSource> dataSources;
+        private final Environment environment;
+
+        PoolSelfCheck(Map<String, HikariDataSource> dataSources, Environment environment) {
+            this.dataSources = dataSources;
+            this.environment = environment;
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void report() {
+            dataSources.forEach((name, dataSource) -> {
+                log.info("Connection pool '{}' ({}): maximumPoolSize={}, minimumIdle={}, connectionTimeout={} ms, "
+                                + "idleTimeout={} ms, maxLifetime={} ms, leakDetectionThreshold={} ms",
+                        dataSource.getPoolName(), name, dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle(),
+                        dataSource.getConnectionTimeout(), dataSource.getIdleTimeout(), dataSource.getMaxLifetime(),
+                        dataSource.getLeakDetectionThreshold());
+                Properties driverProperties = dataSource.getDataSourceProperties();
+                for (String property : STATEMENT_CACHE_PROPERTIES) {
+                    if (!driverProperties.containsKey(property)) {
+                        log.warn("Connection pool '{}' does not set the MySQL driver property {}",
+                                dataSource.getPoolName(), property);
+                    }
+                }
+                if (dataSource.getLeakDetectionThreshold() == 0) {
+                    log.warn("Connection pool '{}' has leak detection disabled", dataSource.getPoolName());
+                }
+            });
+            if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+                log.warn("spring.jpa.show-sql is enabled, every SQL statement is written to stdout");
+            }
+        }
+    }
+}
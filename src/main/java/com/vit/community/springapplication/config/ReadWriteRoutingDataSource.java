@@ -0,0 +1,120 @@
+package com.vit.community.springapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* A DataSource which sends read-only transactions to the replica pools and everything
+* else to the primary.
+*
+* - Replicas are used round robin. A replica whose connection attempt fails is skipped
+*   for replicaRetryMillis and the connection is taken from the primary instead.
+* - After a user has started a read-write transaction, that user's reads go to the
+*   primary for stickinessMillis, so they see their own writes despite replication lag.
+*
+* The decision uses the read-only flag of the current Spring transaction, so this
+* DataSource must be wrapped in a LazyConnectionDataSourceProxy, which defers fetching
+* the connection until the transaction has been fully set up.
+* */
+
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final int STICKY_USERS_PURGE_THRESHOLD = 10_000;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long stickinessMillis;
+    private final long replicaRetryMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLongArray replicaDownUntil;
+    private final Map<String, Long> stickyUntilByUser = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      long stickinessMillis, long replicaRetryMillis) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.stickinessMillis = stickinessMillis;
+        this.replicaRetryMillis = replicaRetryMillis;
+        this.replicaDownUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(username, password);
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        String currentUser = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markSticky(currentUser);
+            return connect(primary, username, password);
+        }
+        if (isSticky(currentUser)) {
+            return connect(primary, username, password);
+        }
+        long now = System.currentTimeMillis();
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+            if (replicaDownUntil.get(index) > now) {
+                continue;
+            }
+            try {
+                return connect(replicas.get(index), username, password);
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, skipping it for {} ms", index, replicaRetryMillis, e);
+                replicaDownUntil.set(index, now + replicaRetryMillis);
+            }
+        }
+        return connect(primary, username, password);
+    }
+
+    private Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private void markSticky(String user) {
+        if (user == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (stickyUntilByUser.size() > STICKY_USERS_PURGE_THRESHOLD) {
+            stickyUntilByUser.values().removeIf(until -> until < now);
+        }
+        stickyUntilByUser.put(user, now + stickinessMillis);
+    }
+
+    private boolean isSticky(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long until = stickyUntilByUser.get(user);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,42 @@
+package com.vit.community.springapplication.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+* Settings of the read replica routing, bound from the datasource.routing.* properties.
+*
+* Lombok library generates the boilerplate code like constructors,
+* getters, setters, equals and hashCode functions at compile time.
+* */
+
+@Data
+@ConfigurationProperties("datasource.routing")
+public class ReplicaRoutingProperties {
+
+//    Routing is only set up when enabled, otherwise the single spring.datasource is used.
+    private boolean enabled;
+
+//    How long reads of a user go to the primary after that user has written.
+    private long stickinessMs = 5000;
+
+//    How long a failed replica is skipped before it is tried again.
+    private long replicaRetryMs = 30000;
+
+    private int replicaPoolSize = 10;
+
+//    How long a read waits for a replica connection before the routing falls back to the primary.
+    private long replicaConnectionTimeoutMs = 1000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -52,6 +52,11 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
        registration. We don’t expect the user to be authenticated at that point of time,
        2) /api/subreddit for creating subreddits,
        3) /api/posts for creating new posts in subreddits
+       4) /api/async/posts for the non-blocking variant of the post reads
+       5) /api/users for reading user profile summaries
+       6) /api/sync for the incremental sync of posts and comments
+
+       The /api/admin endpoints are only allowed for users with the ADMIN authority.
 
        It also adds a JwtAuthenticationFilter class so that it gets executed before any
        request is forwarded to the server.
@@ -70,6 +75,16 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .permitAll()
                 .antMatchers(HttpMethod.GET, "/api/posts/**")
                 .permitAll()
+                .antMatchers(HttpMethod.GET, "/api/async/posts/**")
+                .permitAll()
+                .antMatchers(HttpMethod.GET, "/api/users/**")
+                .permitAll()
+                .antMatchers(HttpMethod.GET, "/api/sync")
+                .permitAll()
+                .antMatchers(HttpMethod.GET, "/api/media/**")
+                .permitAll()
+                .antMatchers(HttpMethod.GET, "/api/trending")
+                .permitAll()
                 .antMatchers("/v2/api-docs",
                         "/configuration/ui",
                         "/swagger-resources/**",
@@ -77,6 +92,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                         "/swagger-ui.html",
                         "/webjars/**")
                 .permitAll()
+                .antMatchers("/api/admin/**")
+                .hasAuthority("ADMIN")
                 .anyRequest()
                 .authenticated();
 
@@ -0,0 +1,130 @@
+package com.vit.community.springapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+* Startup time configuration.
+*
+* The StartupTimingReporter (startup.report.enabled) logs the time spent per startup
+* phase and the slowest beans, and warns when startup exceeds startup.report.target-ms.
+*
+* The "fast-start" profile (see application-fast-start.properties) additionally creates
+* beans lazily, on first use instead of during startup. Spring Boot 2.1 has no
+* spring.main.lazy-initialization, so this is done by a BeanFactoryPostProcessor.
+* Beans which must run without being asked for stay eager: infrastructure beans,
+* post processors, listeners, runners, SmartInitializingSingletons and beans with
+* @Scheduled methods.
+*
+* With startup.training-run=true the application exits as soon as the context has
+* started. cds/train.sh uses this to record the classes loaded during startup into
+* a class data sharing archive.
+* */
+
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "startup.report.enabled", havingValue = "true")
+    public static StartupTimingReporter startupTimingReporter(Environment environment) {
+        return new StartupTimingReporter(environment.getProperty("startup.report.target-ms", Long.class, 0L),
+                environment.getProperty("startup.report.top-beans", Integer.class, 15));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "startup.training-run", havingValue = "true")
+    public ApplicationListener<ApplicationStartedEvent> trainingRunExit() {
+        return event -> {
+            log.info("Training run complete, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+    @Bean
+    @Profile("fast-start")
+    public static BeanFactoryPostProcessor lazyInitializationPostProcessor() {
+        return beanFactory -> {
+            int lazy = 0;
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                if (!definition.isLazyInit() && canBeLazy(beanFactory, beanName, definition)) {
+                    definition.setLazyInit(true);
+                    lazy++;
+                }
+            }
+            log.info("Lazy initialization enabled for {} beans", lazy);
+        };
+    }
+
+    private static boolean canBeLazy(ConfigurableListableBeanFactory beanFactory, String beanName,
+                                     BeanDefinition definition) {
+        if (definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE || !definition.isSingleton()) {
+            return false;
+        }
+        Class<?> type = declaredType(beanFactory, definition);
+        if (type == null) {
+            return false;
+        }
+        for (Class<?> eager : new Class<?>[]{BeanPostProcessor.class, BeanFactoryPostProcessor.class,
+                ApplicationListener.class, SmartInitializingSingleton.class, ApplicationRunner.class,
+                CommandLineRunner.class}) {
+            if (eager.isAssignableFrom(type)) {
+                return false;
+            }
+        }
+        return !hasScheduledMethods(type);
+    }
+
+    /*
+    * Resolves the bean type from the definition only. beanFactory.getType() could
+    * instantiate FactoryBeans, e.g. the repositories, before all post processors are in place.
+    * */
+
+    private static Class<?> declaredType(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String typeName = definition.getBeanClassName();
+        if (definition instanceof AnnotatedBeanDefinition
+                && ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata() != null) {
+            typeName = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata().getReturnTypeName();
+        }
+        if (typeName == null) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(typeName, beanFactory.getBeanClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static boolean hasScheduledMethods(Class<?> type) {
+        AtomicBoolean scheduled = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> {
+            if (AnnotationUtils.findAnnotation(method, Scheduled.class) != null) {
+                scheduled.set(true);
+            }
+        });
+        return scheduled.get();
+    }
+}
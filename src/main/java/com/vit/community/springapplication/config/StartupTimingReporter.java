@@ -0,0 +1,139 @@
+package com.vit.community.springapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Comparator.comparingLong;
+
+/*
+* Measures how long the application takes to start and logs a report once it is ready:
+* - the phases from JVM start to the bean factory, context refresh, web server and ready,
+* - the beans which took longest to create, with the time spent in the bean itself
+*   (construction, injection and init methods) and including the beans it pulled in.
+*
+* Logs a warning if startup took longer than the target, so cold start regressions
+* show up in the logs of every deployment. Registered by StartupConfig.startupTimingReporter.
+* */
+
+@Slf4j
+public class StartupTimingReporter implements InstantiationAwareBeanPostProcessor, ApplicationListener<ApplicationEvent> {
+
+    private final long targetMillis;
+    private final int topBeans;
+    private final long beanFactoryStartedMillis = uptimeMillis();
+    private final ThreadLocal<Deque<BeanTiming>> creating = ThreadLocal.withInitial(ArrayDeque::new);
+    private final List<BeanTiming> timings = new ArrayList<>();
+    private long contextRefreshedMillis;
+    private long webServerStartedMillis;
+    private boolean reported;
+
+    public StartupTimingReporter(long targetMillis, int topBeans) {
+        this.targetMillis = targetMillis;
+        this.topBeans = topBeans;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (!reported) {
+            creating.get().push(new BeanTiming(beanName, System.nanoTime()));
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<BeanTiming> stack = creating.get();
+        if (reported || stack.isEmpty()) {
+            return bean;
+        }
+//        Unwind beans which never completed, e.g. when a candidate was abandoned during resolution.
+        while (!stack.isEmpty() && !stack.peek().beanName.equals(beanName)) {
+            stack.pop();
+        }
+        if (!stack.isEmpty()) {
+            BeanTiming timing = stack.pop();
+            timing.totalNanos = System.nanoTime() - timing.startNanos;
+            if (!stack.isEmpty()) {
+                stack.peek().dependencyNanos += timing.totalNanos;
+            }
+            synchronized (timings) {
+                timings.add(timing);
+            }
+        }
+        return bean;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent && contextRefreshedMillis == 0) {
+            contextRefreshedMillis = uptimeMillis();
+        } else if (event instanceof ServletWebServerInitializedEvent) {
+            webServerStartedMillis = uptimeMillis();
+        } else if (event instanceof ApplicationReadyEvent && !reported) {
+            reported = true;
+            creating.remove();
+            report(uptimeMillis());
+        }
+    }
+
+    private void report(long readyMillis) {
+        StringBuilder report = new StringBuilder("Startup timing report\n");
+        report.append(String.format("  %-32s %6d ms%n", "JVM start -> bean factory", beanFactoryStartedMillis));
+        report.append(String.format("  %-32s %6d ms%n", "bean factory -> context refreshed",
+                contextRefreshedMillis - beanFactoryStartedMillis));
+        if (webServerStartedMillis > 0) {
+            report.append(String.format("  %-32s %6d ms (at %d ms)%n", "web server started",
+                    webServerStartedMillis - beanFactoryStartedMillis, webServerStartedMillis));
+        }
+        report.append(String.format("  %-32s %6d ms%n", "context refreshed -> ready", readyMillis - contextRefreshedMillis));
+        report.append(String.format("  %-32s %6d ms%n", "total", readyMillis));
+
+        List<BeanTiming> slowest;
+        synchronized (timings) {
+            slowest = new ArrayList<>(timings);
+            timings.clear();
+        }
+        slowest.sort(comparingLong(BeanTiming::selfNanos).reversed());
+        report.append(String.format("  %d beans created, slowest (self / including dependencies):%n", slowest.size()));
+        for (BeanTiming timing : slowest.subList(0, Math.min(topBeans, slowest.size()))) {
+            report.append(String.format("    %6d ms / %6d ms  %s%n", TimeUnit.NANOSECONDS.toMillis(timing.selfNanos()),
+                    TimeUnit.NANOSECONDS.toMillis(timing.totalNanos), timing.beanName));
+        }
+        log.info(report.toString());
+        if (targetMillis > 0 && readyMillis > targetMillis) {
+            log.warn("Startup took {} ms, exceeding the target of {} ms", readyMillis, targetMillis);
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    private static class BeanTiming {
+        private final String beanName;
+        private final long startNanos;
+        private long totalNanos;
+        private long dependencyNanos;
+
+        BeanTiming(String beanName, long startNanos) {
+            this.beanName = beanName;
+            this.startNanos = startNanos;
+        }
+
+        long selfNanos() {
+            return totalNanos - dependencyNanos;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.vit.community.springapplication.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -11,14 +12,21 @@ import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+/*
+* Swagger documentation of the REST API. Springfox inspects every handler method at
+* startup, so it is only enabled with swagger.enabled=true (e.g. for local development)
+* and only scans our own controllers.
+* */
+
 @Configuration
+@ConditionalOnProperty(name = "swagger.enabled", havingValue = "true")
 @EnableSwagger2
 public class SwaggerConfiguration {
     @Bean
     public Docket CommunityApi() {
         return new Docket(DocumentationType.SWAGGER_2)
                 .select()
-                .apis(RequestHandlerSelectors.any())
+                .apis(RequestHandlerSelectors.basePackage("com.vit.community.springapplication.controller"))
                 .paths(PathSelectors.any())
                 .build()
                 .apiInfo(getApiInfo());
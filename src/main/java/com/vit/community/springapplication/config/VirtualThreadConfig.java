@@ -0,0 +1,40 @@
+package com.vit.community.springapplication.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+* Opt-in mode (threads.virtual.enabled=true) which runs Tomcat request processing on
+* virtual threads, so blocking JDBC and SMTP calls no longer tie up a fixed pool of
+* platform threads. The @Async executor switches to virtual threads in AsyncConfig.
+*
+* With virtual threads the number of concurrent requests is no longer capped by
+* server.tomcat.max-threads. Database access stays bounded by the Hikari pool
+* (spring.datasource.hikari.maximum-pool-size) and requests which cannot get a
+* connection within spring.datasource.hikari.connection-timeout fail fast instead
+* of queueing against MySQL.
+* */
+
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> {
+            if (!VirtualThreads.isSupported()) {
+                log.warn("Virtual threads requested but not supported by Java {}, using platform threads",
+                        System.getProperty("java.version"));
+                return;
+            }
+            log.info("Tomcat request processing runs on virtual threads");
+            factory.addConnectorCustomizers(connector ->
+                    connector.getProtocolHandler().setExecutor(VirtualThreads.executor("http-virtual-")));
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.vit.community.springapplication.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/*
+* Creates virtual threads when the application runs on a JDK which supports them (21+).
+*
+* The application is compiled for Java 8, so the Thread.ofVirtual() API is looked up
+* reflectively. On older runtimes isSupported() returns false and callers fall back
+* to platform threads.
+* */
+
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+//    Returns a factory creating virtual threads named prefix0, prefix1, ...
+
+    public static ThreadFactory threadFactory(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads require JDK 21 or newer, running on "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread factory", e);
+        }
+    }
+
+//    An executor starting one new virtual thread per task.
+
+    public static Executor executor(String prefix) {
+        ThreadFactory threadFactory = threadFactory(prefix);
+        return task -> threadFactory.newThread(task).start();
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -2,12 +2,18 @@ package com.vit.community.springapplication.config;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+/*
+* Customises Spring Boot's MVC auto-configuration. There is deliberately no @EnableWebMvc,
+* which would replace Boot's defaults, e.g. the message converters using the application
+* ObjectMapper and the spring.mvc.* properties. That ObjectMapper would write dates as
+* ISO-8601 strings, spring.jackson.serialization.write-dates-as-timestamps keeps the
+* numeric timestamps the responses had with @EnableWebMvc.
+* */
+
 @Configuration
-@EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
     /*
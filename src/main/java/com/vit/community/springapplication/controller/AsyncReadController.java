@@ -0,0 +1,79 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.CommentsDto;
+import com.vit.community.springapplication.dto.PostResponse;
+import com.vit.community.springapplication.service.CommentService;
+import com.vit.community.springapplication.service.PostService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The AsyncReadController exposes the post feed, post detail and comment reads
+* as a non-blocking API next to the blocking PostController and CommentsController.
+*
+* Each call is executed on the dedicated dbReadExecutor and returns a CompletableFuture,
+* so the Tomcat request thread is released while the database is queried.
+* When the executor is saturated the call is rejected with 503 Service Unavailable.
+* */
+
+@RestController
+@RequestMapping("/api/async")
+public class AsyncReadController {
+
+    private final PostService postService;
+    private final CommentService commentService;
+    private final AsyncTaskExecutor dbReadExecutor;
+
+    public AsyncReadController(PostService postService, CommentService commentService,
+                               @Qualifier("dbReadExecutor") AsyncTaskExecutor dbReadExecutor) {
+        this.postService = postService;
+        this.commentService = commentService;
+        this.dbReadExecutor = dbReadExecutor;
+    }
+
+    /* The GET API call to read all the posts from the database. */
+
+    @GetMapping("/posts")
+    public CompletableFuture<ResponseEntity<List<PostResponse>>> getAllPosts() {
+        return CompletableFuture.supplyAsync(() -> status(HttpStatus.OK).body(postService.getAllPosts()),
+                dbReadExecutor);
+    }
+
+    /* The GET API call to read the post with the post id provided as part of the URL path. */
+
+    @GetMapping("/posts/{id}")
+    public CompletableFuture<ResponseEntity<PostResponse>> getPost(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> status(HttpStatus.OK).body(postService.getPost(id)),
+                dbReadExecutor);
+    }
+
+    /* The GET API call to read all posts associated with the given subreddit id. */
+
+    @GetMapping("/posts/by-subreddit/{id}")
+    public CompletableFuture<ResponseEntity<List<PostResponse>>> getPostsBySubreddit(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> status(HttpStatus.OK).body(postService.getPostsBySubreddit(id)),
+                dbReadExecutor);
+    }
+
+    /* The GET API call for reading all comments created on a post with given postID. */
+
+    @GetMapping("/comments/by-post/{postId}")
+    public CompletableFuture<ResponseEntity<List<CommentsDto>>> getAllCommentsForPost(@PathVariable Long postId) {
+        return CompletableFuture.supplyAsync(() -> status(HttpStatus.OK).body(commentService.getAllCommentsForPost(postId)),
+                dbReadExecutor);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleRejected(TaskRejectedException e) {
+        return status(HttpStatus.SERVICE_UNAVAILABLE).body("Server is busy, please retry");
+    }
+}
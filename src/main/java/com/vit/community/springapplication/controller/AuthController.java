@@ -1,6 +1,7 @@
 package com.vit.community.springapplication.controller;
 
 import com.vit.community.springapplication.dto.AuthenticationResponse;
+import com.vit.community.springapplication.dto.AvailabilityResponse;
 import com.vit.community.springapplication.dto.LoginRequest;
 import com.vit.community.springapplication.dto.RefreshTokenRequest;
 import com.vit.community.springapplication.dto.RegisterRequest;
@@ -53,6 +54,18 @@ public class AuthController {
                 OK);
     }
 
+    /*
+    * The availability GET API call lets the signup page check a username and/or email
+    * while the user is typing, before the signup request is submitted.
+    * */
+
+    @GetMapping("/signup/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@RequestParam(required = false) String username,
+                                                                  @RequestParam(required = false) String email) {
+        return ResponseEntity.status(OK)
+                .body(authService.checkAvailability(username, email));
+    }
+
     /*
     * The accountVerification API call contains the token as a path variable which is
     * validated against the token and the corresponding user in the database followed by
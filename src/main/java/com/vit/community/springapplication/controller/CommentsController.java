@@ -1,12 +1,21 @@
 package com.vit.community.springapplication.controller;
 
+import com.vit.community.springapplication.dto.CommentVoteDto;
 import com.vit.community.springapplication.dto.CommentsDto;
+import com.vit.community.springapplication.dto.CursorPage;
+import com.vit.community.springapplication.model.CommentSort;
 import com.vit.community.springapplication.service.CommentService;
+import com.vit.community.springapplication.service.CommentVoteService;
+import com.vit.community.springapplication.service.JsonArrayWriter;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 import static org.springframework.http.HttpStatus.CREATED;
@@ -24,6 +33,8 @@ import static org.springframework.http.HttpStatus.OK;
 @AllArgsConstructor
 public class CommentsController {
     private final CommentService commentService;
+    private final CommentVoteService commentVoteService;
+    private final JsonArrayWriter jsonArrayWriter;
 
     /*
      * The POST API call for creating a comment on a post and saving it into the database.
@@ -37,25 +48,68 @@ public class CommentsController {
     }
 
     /*
-    * The GET API call for reading all comments created on a post with given postID
+     * The POST API call for casting an UPVOTE or a DOWNVOTE on a comment.
+     * Receives the CommentVoteDto object as part of the request body.
+     * */
+
+    @PostMapping("/votes")
+    public ResponseEntity<Void> vote(@RequestBody CommentVoteDto commentVoteDto) {
+        commentVoteService.vote(commentVoteDto);
+        return new ResponseEntity<>(OK);
+    }
+
+    /*
+    * The GET API call for reading the comments created on a post with given postID
     * as part of the URL path.
+    *
+    * Without sort all comments are returned in the order they were created. With
+    * sort=best|new|top one page of at most limit comments is returned, starting after
+    * the comment id given as after, and the cursor of the next page is sent in the
+    * X-Next-Cursor header if there may be more.
+    *
+    * Answers with 304 Not Modified when the client sends the current ETag
+    * in If-None-Match, without loading the comments. Otherwise the comments are
+    * mapped before the response starts, then the JSON array is streamed to the client.
     * */
 
     @GetMapping("/by-post/{postId}")
-    public ResponseEntity<List<CommentsDto>> getAllCommentsForPost(@PathVariable Long postId) {
-        return ResponseEntity.status(OK)
-                .body(commentService.getAllCommentsForPost(postId));
+    public void getAllCommentsForPost(@PathVariable Long postId,
+                                      @RequestParam(required = false) String sort,
+                                      @RequestParam(required = false) Long after,
+                                      @RequestParam(defaultValue = "20") int limit,
+                                      WebRequest webRequest,
+                                      HttpServletResponse response) throws IOException {
+        if (webRequest.checkNotModified(commentService.getCommentsForPostETag(postId))) {
+            return;
+        }
+        CursorPage<CommentsDto> page = sort == null
+                ? new CursorPage<>(commentService.getAllCommentsForPost(postId), null)
+                : commentService.getCommentsForPost(postId, CommentSort.lookup(sort), after, limit);
+        response.setStatus(OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        if (page.getNextCursor() != null) {
+            response.setHeader(PostController.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        jsonArrayWriter.writeArray(response.getOutputStream(), CommentsDto.class, page.getItems().iterator());
     }
 
     /*
-     * The GET API call for reading all comments created by a user with given username
-     * as part of the URL path.
+     * The GET API call for reading the comments created by a user with given username
+     * as part of the URL path, newest first. Returns at most limit comments older than the
+     * comment id given as after, and the cursor of the next page in the X-Next-Cursor
+     * header if there may be more.
      * */
 
     @GetMapping("/by-user/{userName}")
-    public ResponseEntity<List<CommentsDto>> getAllCommentsForUser(@PathVariable String userName){
-        return ResponseEntity.status(OK)
-                .body(commentService.getAllCommentsForUser(userName));
+    public ResponseEntity<List<CommentsDto>> getAllCommentsForUser(@PathVariable String userName,
+                                                                   @RequestParam(required = false) Long after,
+                                                                   @RequestParam(defaultValue = "20") int limit){
+        CursorPage<CommentsDto> page = commentService.getAllCommentsForUser(userName, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(OK);
+        if (page.getNextCursor() != null) {
+            response.header(PostController.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/delete/{id}")
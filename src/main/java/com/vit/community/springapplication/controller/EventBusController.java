@@ -0,0 +1,30 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.EventBusStats;
+import com.vit.community.springapplication.event.DomainEventBus;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The EventBusController exposes the queue depth, throughput, drops and delivery lag
+* of the domain event bus lanes to admins.
+* */
+
+@RestController
+@RequestMapping("/api/admin/events")
+@AllArgsConstructor
+public class EventBusController {
+
+    private final DomainEventBus domainEventBus;
+
+    @GetMapping("/stats")
+    public ResponseEntity<EventBusStats> getStats() {
+        return status(HttpStatus.OK).body(domainEventBus.getStats());
+    }
+}
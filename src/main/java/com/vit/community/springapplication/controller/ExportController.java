@@ -0,0 +1,56 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.service.ExportService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+* The ExportController handles the admin GET requests which dump all posts, comments
+* or votes for the analytics team. The format request parameter selects NDJSON (default)
+* or CSV. Rows are written directly to the response as they are read from the database.
+* */
+
+@RestController
+@RequestMapping("/api/admin/export")
+@AllArgsConstructor
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/posts")
+    public void exportPosts(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = prepare(response, format, "posts");
+        exportService.exportPosts(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/comments")
+    public void exportComments(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = prepare(response, format, "comments");
+        exportService.exportComments(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/votes")
+    public void exportVotes(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportService.Format exportFormat = prepare(response, format, "votes");
+        exportService.exportVotes(exportFormat, response.getOutputStream());
+    }
+
+    private ExportService.Format prepare(HttpServletResponse response, String format, String name) {
+        ExportService.Format exportFormat = ExportService.Format.lookup(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"");
+        return exportFormat;
+    }
+}
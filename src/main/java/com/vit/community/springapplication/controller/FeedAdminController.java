@@ -0,0 +1,39 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.HomeFeedStats;
+import com.vit.community.springapplication.service.HomeFeedService;
+import com.vit.community.springapplication.service.PostFeedService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The FeedAdminController lets admins rebuild the post feed read model from the
+* post, user, subreddit and comment tables, and shows the fan-out and read statistics
+* of the home feed timelines.
+* */
+
+@RestController
+@RequestMapping("/api/admin/feed")
+@AllArgsConstructor
+public class FeedAdminController {
+
+    private final PostFeedService postFeedService;
+    private final HomeFeedService homeFeedService;
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Integer> rebuild() {
+        return status(HttpStatus.OK).body(postFeedService.rebuild());
+    }
+
+    @GetMapping("/home/stats")
+    public ResponseEntity<HomeFeedStats> getHomeFeedStats() {
+        return status(HttpStatus.OK).body(homeFeedService.getStats());
+    }
+}
@@ -0,0 +1,47 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.CursorPage;
+import com.vit.community.springapplication.dto.PostResponse;
+import com.vit.community.springapplication.service.HomeFeedService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static com.vit.community.springapplication.controller.PostController.NEXT_CURSOR_HEADER;
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The FeedController serves the personalized home feed of the logged in user,
+* built from the subreddits the user is subscribed to.
+* */
+
+@RestController
+@RequestMapping("/api/feed")
+@AllArgsConstructor
+public class FeedController {
+
+    private final HomeFeedService homeFeedService;
+
+    /*
+    * The GET API call to read the home feed, newest first. Returns at most limit posts
+    * older than the post id given as after, and the cursor of the next page in the
+    * X-Next-Cursor header if there may be more.
+    * */
+
+    @GetMapping("/home")
+    public ResponseEntity<List<PostResponse>> getHomeFeed(@RequestParam(required = false) Long after,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        CursorPage<PostResponse> page = homeFeedService.getHomeFeed(after, limit);
+        ResponseEntity.BodyBuilder response = status(HttpStatus.OK);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+}
@@ -0,0 +1,33 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.ImportReport;
+import com.vit.community.springapplication.service.BulkImportService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/*
+* The ImportController handles the admin POST request which bulk imports subreddits,
+* posts and comments. The request body is an NDJSON stream which is consumed while
+* it is being uploaded, and the response reports the imported rows and throughput.
+* */
+
+@RestController
+@RequestMapping("/api/admin/import")
+@AllArgsConstructor
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+
+    @PostMapping
+    public ResponseEntity<ImportReport> importRecords(HttpServletRequest request) throws IOException {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(bulkImportService.importRecords(request.getInputStream()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.MediaResponse;
+import com.vit.community.springapplication.model.MediaAttachment;
+import com.vit.community.springapplication.service.MediaService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The MediaController handles the upload of images attached to posts, and serves
+* the stored images and their thumbnails. Downloads support range requests and
+* are cached by the clients, as the content behind a media id never changes.
+* */
+
+@RestController
+@RequestMapping("/api")
+@AllArgsConstructor
+public class MediaController {
+
+    private final MediaService mediaService;
+
+    /*
+    * The POST API call to attach the image sent as the multipart "file" part to the post
+    * with the id provided as part of the URL path.
+    * */
+
+    @PostMapping(value = "/posts/{id}/media", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<MediaResponse> upload(@PathVariable Long id,
+                                                @RequestParam("file") MultipartFile file) throws IOException {
+        return status(HttpStatus.CREATED).body(mediaService.upload(id, file));
+    }
+
+    @GetMapping("/posts/{id}/media")
+    public ResponseEntity<List<MediaResponse>> getMediaForPost(@PathVariable Long id) {
+        return status(HttpStatus.OK).body(mediaService.getMediaForPost(id));
+    }
+
+    @GetMapping("/media/{id}")
+    public void download(@PathVariable Long id, HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<MediaAttachment> attachment = mediaService.getMedia(id);
+        if (!attachment.isPresent()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        MediaAttachment media = attachment.get();
+        FileRangeResponder.send(request, response, mediaService.getContentPath(media),
+                media.getContentType(), "\"" + media.getContentHash() + "\"");
+    }
+
+    /*
+    * The GET API call to read the thumbnail of an image. Answers with 404 Not Found
+    * while the thumbnail is still being rendered.
+    * */
+
+    @GetMapping("/media/{id}/thumbnail")
+    public void downloadThumbnail(@PathVariable Long id, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        Optional<MediaAttachment> attachment = mediaService.getMedia(id);
+        Optional<Path> thumbnail = attachment.flatMap(mediaService::getThumbnailPath);
+        if (!thumbnail.isPresent()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        FileRangeResponder.send(request, response, thumbnail.get(), MediaType.IMAGE_JPEG_VALUE,
+                "\"" + attachment.get().getContentHash() + "-thumbnail\"");
+    }
+}
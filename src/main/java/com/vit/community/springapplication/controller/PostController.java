@@ -1,14 +1,25 @@
 package com.vit.community.springapplication.controller;
 
+import com.vit.community.springapplication.dto.CursorPage;
 import com.vit.community.springapplication.dto.PostRequest;
 import com.vit.community.springapplication.dto.PostResponse;
 import com.vit.community.springapplication.model.Post;
+import com.vit.community.springapplication.service.JsonArrayWriter;
+import com.vit.community.springapplication.service.LivePostUpdateService;
 import com.vit.community.springapplication.service.PostService;
+import com.vit.community.springapplication.service.PostViewService;
+import com.vit.community.springapplication.service.TrendingService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -27,7 +38,14 @@ import static org.springframework.http.ResponseEntity.status;
 @AllArgsConstructor
 public class PostController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final PostService postService;
+    private final LivePostUpdateService livePostUpdateService;
+    private final JsonArrayWriter jsonArrayWriter;
+    private final TrendingService trendingService;
+    private final PostViewService postViewService;
 
     /*
     * The POST API call for creating a post and saving it into the database.
@@ -52,20 +70,57 @@ public class PostController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    /* The GET API call to read all the posts from the database. */
+    /*
+    * The GET API call to read all the posts, newest first. Pagination is opt-in: when limit
+    * or after is given, returns at most limit posts older than the post id given as after,
+    * and the cursor of the next page in the X-Next-Cursor header if there are more.
+    * The posts are mapped before the response starts, then the JSON array is streamed
+    * to the client.
+    * */
 
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts() {
-        return status(HttpStatus.OK).body(postService.getAllPosts());
+    public void getAllPosts(@RequestParam(required = false) Long after,
+                            @RequestParam(required = false) Integer limit,
+                            HttpServletResponse response) throws IOException {
+        if (after == null && limit == null) {
+            writeArray(response, postService.getAllPosts(), null);
+            return;
+        }
+        CursorPage<PostResponse> page = postService.getLatestPosts(after, limit != null ? limit : DEFAULT_PAGE_SIZE);
+        writeArray(response, page.getItems(), page.getNextCursor());
+    }
+
+    /*
+    * The GET API call which opens a Server-Sent Events stream of vote and comment count
+    * changes for the posts whose ids are given as the ids request parameter.
+    * */
+
+    @GetMapping("/live")
+    public SseEmitter getLiveUpdates(@RequestParam List<Long> ids) {
+        return livePostUpdateService.subscribe(ids);
     }
 
     /*
     * The GET API call to read the post with the post id provided as part
     * of the URL path.
+    *
+    * Answers with 304 Not Modified when the client sends the current ETag
+    * in If-None-Match, without mapping the post. Every read of an existing post
+    * counts as a view, the approximate view count is not part of the ETag.
     * */
 
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponse> getPost(@PathVariable Long id) {
+    public ResponseEntity<PostResponse> getPost(@PathVariable Long id, WebRequest webRequest,
+                                                HttpServletRequest request) {
+//        Looking up the ETag fails for unknown posts, so only existing posts are counted.
+        String eTag = postService.getPostETag(id);
+        trendingService.postRead(id);
+        postViewService.recordView(id, request.getUserPrincipal() != null
+                ? "user:" + request.getUserPrincipal().getName()
+                : "ip:" + request.getRemoteAddr());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         return status(HttpStatus.OK).body(postService.getPost(id));
     }
 
@@ -76,16 +131,35 @@ public class PostController {
 
     @GetMapping("/by-subreddit/{id}")
     public ResponseEntity<List<PostResponse>> getPostsBySubreddit(@PathVariable Long id) {
+        trendingService.subredditRead(id);
         return status(HttpStatus.OK).body(postService.getPostsBySubreddit(id));
     }
 
     /*
-     * The GET API call to read all posts created by the user with username
-     * provided as part of the URL path.
+     * The GET API call to read the posts created by the user with username
+     * provided as part of the URL path, newest first. Returns at most limit posts
+     * older than the post id given as after, and the cursor of the next page in the
+     * X-Next-Cursor header if there may be more.
      * */
 
     @GetMapping("/by-user/{name}")
-    public ResponseEntity<List<PostResponse>> getPostsByUsername(@PathVariable String name) {
-        return status(HttpStatus.OK).body(postService.getPostsByUsername(name));
+    public ResponseEntity<List<PostResponse>> getPostsByUsername(@PathVariable String name,
+                                                                 @RequestParam(required = false) Long after,
+                                                                 @RequestParam(defaultValue = "20") int limit) {
+        CursorPage<PostResponse> page = postService.getPostsByUsername(name, after, limit);
+        ResponseEntity.BodyBuilder response = status(HttpStatus.OK);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    private void writeArray(HttpServletResponse response, List<PostResponse> posts, Long nextCursor) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        if (nextCursor != null) {
+            response.setHeader(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        jsonArrayWriter.writeArray(response.getOutputStream(), PostResponse.class, posts.iterator());
     }
 }
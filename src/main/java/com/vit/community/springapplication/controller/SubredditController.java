@@ -2,11 +2,13 @@ package com.vit.community.springapplication.controller;
 
 import com.vit.community.springapplication.dto.SubredditDto;
 import com.vit.community.springapplication.service.SubredditService;
+import com.vit.community.springapplication.service.SubscriptionService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -28,6 +30,7 @@ import java.util.List;
 public class SubredditController {
 
     private final SubredditService subredditService;
+    private final SubscriptionService subscriptionService;
 
     /*
     * The POST API request to create a subreddit containing the subreddit DTO in the request body.
@@ -41,10 +44,14 @@ public class SubredditController {
 
     /*
     * The GET API request to read all existing subreddits in the database.
+    * Answers with 304 Not Modified when the client already has the current list.
     * */
 
     @GetMapping
-    public ResponseEntity<List<SubredditDto>> getAllSubreddits() {
+    public ResponseEntity<List<SubredditDto>> getAllSubreddits(WebRequest webRequest) {
+        if (webRequest.checkNotModified(subredditService.getAllETag())) {
+            return null;
+        }
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(subredditService.getAll());
@@ -61,4 +68,32 @@ public class SubredditController {
                 .status(HttpStatus.OK)
                 .body(subredditService.getSubreddit(id));
     }
+
+    /*
+    * The GET API request to read the subreddits the logged in user is subscribed to.
+    * */
+
+    @GetMapping("/subscriptions")
+    public ResponseEntity<List<SubredditDto>> getSubscriptions() {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(subscriptionService.getSubscriptions());
+    }
+
+    /*
+    * The POST and DELETE API requests to subscribe the logged in user to the subreddit
+    * with the id provided in the URL path, and to unsubscribe them.
+    * */
+
+    @PostMapping("/{id}/subscription")
+    public ResponseEntity<Void> subscribe(@PathVariable Long id) {
+        subscriptionService.subscribe(id);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}/subscription")
+    public ResponseEntity<Void> unsubscribe(@PathVariable Long id) {
+        subscriptionService.unsubscribe(id);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
@@ -0,0 +1,34 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.SyncResponse;
+import com.vit.community.springapplication.service.ChangeLogService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The SyncController lets clients fetch only what changed since their last sync instead
+* of reloading all posts and comments. A first sync with since=0 returns the current
+* state of all posts and comments, in batches, including imported ones once the change
+* log has been backfilled after the import.
+* */
+
+@RestController
+@RequestMapping("/api/sync")
+@AllArgsConstructor
+public class SyncController {
+
+    private final ChangeLogService changeLogService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                   @RequestParam(defaultValue = "500") int limit) {
+        return status(HttpStatus.OK).body(changeLogService.getChangesSince(since, limit));
+    }
+}
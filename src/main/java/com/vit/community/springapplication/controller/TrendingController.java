@@ -0,0 +1,31 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.TrendingResponse;
+import com.vit.community.springapplication.service.TrendingService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The TrendingController serves the posts and subreddits with the most reads and
+* votes in the recent past, hottest first.
+* */
+
+@RestController
+@RequestMapping("/api/trending")
+@AllArgsConstructor
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    @GetMapping
+    public ResponseEntity<TrendingResponse> getTrending(@RequestParam(defaultValue = "10") int limit) {
+        return status(HttpStatus.OK).body(trendingService.getTrending(limit));
+    }
+}
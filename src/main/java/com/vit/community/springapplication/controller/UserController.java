@@ -0,0 +1,37 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.UserSummaryResponse;
+import com.vit.community.springapplication.service.UserStatsService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The UserController handles the HTTP GET requests from client related to
+* user profiles. Delegates calls to UserStatsService class and returns a
+* ResponseEntity object with the appropriate HTTP status and body (data).
+* */
+
+@RestController
+@RequestMapping("/api/users")
+@AllArgsConstructor
+public class UserController {
+
+    private final UserStatsService userStatsService;
+
+    /*
+    * The GET API call to read the post count, comment count and karma of the user
+    * with the username provided as part of the URL path.
+    * */
+
+    @GetMapping("/{name}/summary")
+    public ResponseEntity<UserSummaryResponse> getSummary(@PathVariable String name) {
+        return status(HttpStatus.OK).body(userStatsService.getSummary(name));
+    }
+}
@@ -0,0 +1,37 @@
+package com.vit.community.springapplication.controller;
+
+import com.vit.community.springapplication.dto.VoteCompactionReport;
+import com.vit.community.springapplication.service.VoteCompactionService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.http.ResponseEntity.status;
+
+/*
+* The VoteAdminController lets admins start the online compaction of the vote table
+* and follow its progress. The compaction runs in the background, the POST request
+* answers with 202 Accepted and the GET request with the current report.
+* */
+
+@RestController
+@RequestMapping("/api/admin/votes")
+@AllArgsConstructor
+public class VoteAdminController {
+
+    private final VoteCompactionService voteCompactionService;
+
+    @PostMapping("/compaction")
+    public ResponseEntity<VoteCompactionReport> startCompaction() {
+        return status(HttpStatus.ACCEPTED).body(voteCompactionService.start());
+    }
+
+    @GetMapping("/compaction")
+    public ResponseEntity<VoteCompactionReport> getCompactionReport() {
+        return status(HttpStatus.OK).body(voteCompactionService.getReport());
+    }
+}
@@ -0,0 +1,23 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* Tells the signup page whether the requested username and email are still free.
+* A field is null when the corresponding value was not part of the request.
+*
+* Lombok library generates the boilerplate code like constructors,
+* getters, setters, equals and hashCode functions at compile time.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AvailabilityResponse {
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
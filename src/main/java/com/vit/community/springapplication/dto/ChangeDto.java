@@ -0,0 +1,22 @@
+package com.vit.community.springapplication.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.vit.community.springapplication.model.ChangeOperation;
+import com.vit.community.springapplication.model.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeDto {
+    private Long seq;
+    private ChangeType type;
+    private Long id;
+    private Long postId;
+    private ChangeOperation operation;
+//    Snapshot of the post (like the post export) or comment after the change, already serialized
+    @JsonRawValue
+    private String data;
+}
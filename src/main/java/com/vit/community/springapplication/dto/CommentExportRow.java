@@ -0,0 +1,23 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/*
+* One row of the comment export, read with a constructor expression so that no
+* Comment entities are loaded into the persistence context.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentExportRow {
+    private Long id;
+    private Long postId;
+    private String userName;
+    private String text;
+    private Instant createdDate;
+}
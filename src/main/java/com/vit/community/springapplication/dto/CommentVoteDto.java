@@ -0,0 +1,14 @@
+package com.vit.community.springapplication.dto;
+
+import com.vit.community.springapplication.model.VoteType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentVoteDto {
+    private VoteType voteType;
+    private Long commentId;
+}
@@ -15,4 +15,5 @@ public class CommentsDto {
     private String duration;
     private String text;
     private String userName;
+    private Integer voteCount;
 }
@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+* One page of a keyset paginated listing: the mapped items and the cursor of the
+* next page, null on the last page.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
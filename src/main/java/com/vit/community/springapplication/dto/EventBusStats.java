@@ -0,0 +1,19 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventBusStats {
+    private List<EventLaneStats> lanes;
+//    Number of events each subscriber failed to handle, by subscriber name
+    private Map<String, Long> subscriberFailures;
+}
@@ -0,0 +1,27 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* Counters of one DomainEventBus lane. The lag is the time between an event being
+* queued after commit and its delivery; the maximum covers the time since the
+* previous stats request.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventLaneStats {
+    private int lane;
+    private int queued;
+    private int capacity;
+    private long published;
+    private long delivered;
+    private long dropped;
+    private long lastLagMillis;
+    private long maxLagMillis;
+}
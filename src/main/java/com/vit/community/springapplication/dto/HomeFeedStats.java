@@ -0,0 +1,27 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HomeFeedStats {
+//    Timelines currently held in memory
+    private int timelines;
+    private int largeSubreddits;
+//    Posts pushed into timelines, and the timeline inserts this caused (the write amplification)
+    private long fanOutPosts;
+    private long fanOutWrites;
+//    Posts of large subreddits left to be merged on read instead
+    private long mergeOnReadPosts;
+    private long timelineBuilds;
+    private long reads;
+//    Reads which merged large subreddits in, and reads past the end of a truncated timeline
+    private long mergedReads;
+    private long databaseReads;
+    private double averageReadMillis;
+}
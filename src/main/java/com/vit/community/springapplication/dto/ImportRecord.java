@@ -0,0 +1,32 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/*
+* One line of a bulk import file. The type field selects which of the other fields are used:
+*
+*   {"type":"subreddit","name":"...","description":"...","userName":"..."}
+*   {"type":"post","postName":"...","subredditName":"...","userName":"...","url":"...","description":"..."}
+*   {"type":"comment","postName":"...","userName":"...","text":"..."}
+*
+* createdDate is optional for all types and defaults to the import time.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRecord {
+    private String type;
+    private String name;
+    private String description;
+    private String subredditName;
+    private String postName;
+    private String url;
+    private String text;
+    private String userName;
+    private Instant createdDate;
+}
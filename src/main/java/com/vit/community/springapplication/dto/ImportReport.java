@@ -0,0 +1,25 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* Summary of a bulk import: rows written per type, rows skipped because they were
+* invalid or referenced unknown users/subreddits/posts, and the achieved throughput.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportReport {
+    private long subreddits;
+    private long posts;
+    private long comments;
+    private long skipped;
+    private long failed;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
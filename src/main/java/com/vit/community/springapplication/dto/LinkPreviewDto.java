@@ -0,0 +1,18 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LinkPreviewDto {
+    private String url;
+    private String title;
+    private String description;
+    private String imageUrl;
+    private String siteName;
+}
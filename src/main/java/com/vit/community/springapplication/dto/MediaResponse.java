@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class MediaResponse {
+    private Long id;
+    private Long postId;
+    private String fileName;
+    private String contentType;
+    private Long size;
+    private String url;
+    private String thumbnailUrl;
+}
@@ -0,0 +1,26 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/*
+* One row of the post export, read with a constructor expression so that no
+* Post entities are loaded into the persistence context.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostExportRow {
+    private Long postId;
+    private String postName;
+    private String url;
+    private String description;
+    private String userName;
+    private String subredditName;
+    private Integer voteCount;
+    private Instant createdDate;
+}
@@ -0,0 +1,19 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* A delta event pushed to clients subscribed to live post updates.
+* Fields which did not change since the last event are null.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostLiveUpdate {
+    private Long postId;
+    private Integer voteCount;
+    private Integer commentCount;
+}
@@ -16,7 +16,11 @@ public class PostResponse {
     private String subredditName;
     private Integer voteCount;
     private Integer commentCount;
+//    Approximate number of distinct viewers, updated every few seconds
+    private Long viewCount;
     private String duration;
     private boolean upVote;
     private boolean downVote;
+//    Title, description and image of the linked page, null while not fetched or if there is none.
+    private LinkPreviewDto linkPreview;
 }
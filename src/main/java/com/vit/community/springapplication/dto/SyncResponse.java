@@ -0,0 +1,23 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/*
+* One batch of changes. Clients store nextSince and pass it as since in the next
+* request, immediately while hasMore is true, otherwise on their next sync.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SyncResponse {
+    private List<ChangeDto> changes;
+    private Long nextSince;
+    private boolean hasMore;
+}
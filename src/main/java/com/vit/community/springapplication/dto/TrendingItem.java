@@ -0,0 +1,15 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingItem {
+    private Long id;
+    private String name;
+//    Decayed count of recent reads and weighted votes
+    private Long score;
+}
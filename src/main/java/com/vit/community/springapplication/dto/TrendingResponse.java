@@ -0,0 +1,15 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingResponse {
+    private List<TrendingItem> posts;
+    private List<TrendingItem> subreddits;
+}
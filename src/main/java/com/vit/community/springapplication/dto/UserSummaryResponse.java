@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserSummaryResponse {
+    private String userName;
+    private Instant created;
+    private long postCount;
+    private long commentCount;
+    private long karma;
+}
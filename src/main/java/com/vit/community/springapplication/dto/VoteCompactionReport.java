@@ -0,0 +1,29 @@
+package com.vit.community.springapplication.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+* Progress and outcome of the vote compaction: rows removed from the vote table,
+* whether the unique index on (post, user) is in place, and the average time of the
+* latest-vote lookup before and after.
+*
+* Reports are immutable, the compaction publishes a new one after every step.
+* */
+
+@Value
+@Builder(toBuilder = true)
+public class VoteCompactionReport {
+//    IDLE, RUNNING, DONE or FAILED
+    private String status;
+    private long rowsBefore;
+    private long rowsDeleted;
+    private long rowsAfter;
+    private long chunks;
+    private long elapsedMillis;
+    private boolean uniqueIndex;
+    private double lookupMicrosBefore;
+    private double lookupMicrosAfter;
+    private double lookupSpeedup;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.vit.community.springapplication.dto;
+
+import com.vit.community.springapplication.model.VoteType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+* One row of the vote export, read with a constructor expression so that no
+* Vote entities are loaded into the persistence context.
+* */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoteExportRow {
+    private Long voteId;
+    private Long postId;
+    private String userName;
+    private VoteType voteType;
+}
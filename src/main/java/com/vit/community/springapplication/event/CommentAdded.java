@@ -0,0 +1,18 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* A comment was added to a post. commentCount is the comment count of the post after the change. */
+
+@Value
+public class CommentAdded implements DomainEvent {
+    private Long commentId;
+    private Long postId;
+    private Long userId;
+    private Integer commentCount;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* A comment was deleted. commentCount is the comment count of the post after the change. */
+
+@Value
+public class CommentDeleted implements DomainEvent {
+    private Long commentId;
+    private Long postId;
+    private Integer commentCount;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
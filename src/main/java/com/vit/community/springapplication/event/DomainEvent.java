@@ -0,0 +1,15 @@
+package com.vit.community.springapplication.event;
+
+/*
+* A change of the domain published on the DomainEventBus once the transaction
+* which made it has committed.
+*
+* Events with the same aggregate id (the post for post, vote and comment events,
+* the subreddit for subreddit events) are delivered to subscribers in the order
+* in which they were published.
+* */
+
+public interface DomainEvent {
+
+    Long getAggregateId();
+}
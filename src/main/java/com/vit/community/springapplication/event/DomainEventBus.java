@@ -0,0 +1,242 @@
+package com.vit.community.springapplication.event;
+
+import com.vit.community.springapplication.dto.EventBusStats;
+import com.vit.community.springapplication.dto.EventLaneStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.util.stream.Collectors.toList;
+
+/*
+* In-process bus for DomainEvents, which decouples side effects like notifications
+* and live updates from the write path of the services.
+*
+* - Events published inside a transaction are dispatched after it commits, and dropped
+*   if it rolls back. Events published outside a transaction are dispatched at once.
+* - Dispatching puts the event on one of several lanes, chosen by the aggregate id.
+*   Each lane is a bounded queue drained by one thread, so the events of one post
+*   reach subscribers in order while different posts are handled in parallel.
+* - When a lane is full the publisher waits up to events.publish-timeout-ms for space
+*   (backpressure), then drops the event with a warning. The transaction has already
+*   committed at that point, so failing the request would not undo anything.
+* - A failing subscriber is logged and counted, it does not affect other subscribers.
+*
+* Subscribers registered with subscribeInTransaction instead run synchronously inside the
+* publishing transaction, e.g. to write an outbox. Their exceptions roll the transaction back.
+* */
+
+@Component
+@Slf4j
+public class DomainEventBus implements SmartInitializingSingleton {
+
+    private final ObjectProvider<DomainEventSubscriber> subscriberBeans;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Subscription<?>> transactionalSubscriptions = new CopyOnWriteArrayList<>();
+    private final Lane[] lanes;
+    private final long publishTimeoutMillis;
+    private volatile boolean running = true;
+
+    public DomainEventBus(ObjectProvider<DomainEventSubscriber> subscriberBeans,
+                          @Value("${events.lanes}") int laneCount,
+                          @Value("${events.lane-capacity}") int laneCapacity,
+                          @Value("${events.publish-timeout-ms}") long publishTimeoutMillis) {
+        this.subscriberBeans = subscriberBeans;
+        this.publishTimeoutMillis = publishTimeoutMillis;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, laneCapacity);
+            lanes[i].thread.start();
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        subscriberBeans.orderedStream().forEach(subscriber -> subscriber.subscribe(this));
+        log.info("Domain event bus started with {} lanes, {} subscriptions and {} in-transaction subscriptions",
+                lanes.length, subscriptions.size(), transactionalSubscriptions.size());
+    }
+
+    /*
+    * Registers a handler for the events of the given type (including subtypes). The handler
+    * runs on a lane thread, without a transaction, after the publishing transaction committed.
+    * */
+
+    public <E extends DomainEvent> void subscribe(Class<E> eventType, String name, Consumer<? super E> handler) {
+        subscriptions.add(new Subscription<>(eventType, name, handler));
+    }
+
+    /*
+    * Registers a handler which runs on the publishing thread, in the transaction
+    * of the publisher, before the event is queued for the other subscribers.
+    * */
+
+    public <E extends DomainEvent> void subscribeInTransaction(Class<E> eventType, String name,
+                                                               Consumer<? super E> handler) {
+        transactionalSubscriptions.add(new Subscription<>(eventType, name, handler));
+    }
+
+    public void publish(DomainEvent event) {
+        for (Subscription<?> subscription : transactionalSubscriptions) {
+            subscription.deliverInTransaction(event);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+        } else {
+            dispatch(event);
+        }
+    }
+
+    public EventBusStats getStats() {
+        Map<String, Long> failures = new TreeMap<>();
+        for (Subscription<?> subscription : subscriptions) {
+            failures.merge(subscription.name, subscription.failures.get(), Long::sum);
+        }
+        return EventBusStats.builder()
+                .lanes(Arrays.stream(lanes).map(Lane::stats).collect(toList()))
+                .subscriberFailures(failures)
+                .build();
+    }
+
+    /* Stops accepting events and gives the lanes a few seconds to deliver what is queued. */
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+            if (!lane.queue.isEmpty()) {
+                log.warn("Discarding {} undelivered events of lane {}", lane.queue.size(), lane.index);
+                lane.thread.interrupt();
+            }
+        }
+    }
+
+    private void dispatch(DomainEvent event) {
+        Lane lane = lanes[Math.floorMod(Objects.hashCode(event.getAggregateId()), lanes.length)];
+        try {
+            if (running && lane.queue.offer(new Envelope(event, System.nanoTime()),
+                    publishTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                lane.published.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lane.dropped.incrementAndGet();
+        log.warn("Dropped {} for aggregate {}, lane {} is full", event.getClass().getSimpleName(),
+                event.getAggregateId(), lane.index);
+    }
+
+    private static class Envelope {
+        private final DomainEvent event;
+        private final long queuedAtNanos;
+
+        Envelope(DomainEvent event, long queuedAtNanos) {
+            this.event = event;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+    }
+
+    private static class Subscription<E extends DomainEvent> {
+        private final Class<E> eventType;
+        private final String name;
+        private final Consumer<? super E> handler;
+        private final AtomicLong failures = new AtomicLong();
+
+        Subscription(Class<E> eventType, String name, Consumer<? super E> handler) {
+            this.eventType = eventType;
+            this.name = name;
+            this.handler = handler;
+        }
+
+        void deliverInTransaction(DomainEvent event) {
+            if (eventType.isInstance(event)) {
+                handler.accept(eventType.cast(event));
+            }
+        }
+
+        void deliver(DomainEvent event) {
+            if (!eventType.isInstance(event)) {
+                return;
+            }
+            try {
+                handler.accept(eventType.cast(event));
+            } catch (RuntimeException e) {
+                failures.incrementAndGet();
+                log.error("Subscriber {} failed to handle {}", name, event, e);
+            }
+        }
+    }
+
+    private class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<Envelope> queue;
+        private final Thread thread;
+        private final AtomicLong published = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong lastLagNanos = new AtomicLong();
+        private final AtomicLong maxLagNanos = new AtomicLong();
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "domain-events-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Envelope envelope;
+                try {
+                    envelope = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (envelope == null) {
+                    continue;
+                }
+                long lag = System.nanoTime() - envelope.queuedAtNanos;
+                lastLagNanos.set(lag);
+                maxLagNanos.accumulateAndGet(lag, Math::max);
+                for (Subscription<?> subscription : subscriptions) {
+                    subscription.deliver(envelope.event);
+                }
+                delivered.incrementAndGet();
+            }
+        }
+
+        EventLaneStats stats() {
+            return EventLaneStats.builder()
+                    .lane(index)
+                    .queued(queue.size())
+                    .capacity(queue.size() + queue.remainingCapacity())
+                    .published(published.get())
+                    .delivered(delivered.get())
+                    .dropped(dropped.get())
+                    .lastLagMillis(TimeUnit.NANOSECONDS.toMillis(lastLagNanos.get()))
+                    .maxLagMillis(TimeUnit.NANOSECONDS.toMillis(maxLagNanos.getAndSet(0)))
+                    .build();
+        }
+    }
+}
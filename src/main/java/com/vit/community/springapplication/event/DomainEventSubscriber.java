@@ -0,0 +1,12 @@
+package com.vit.community.springapplication.event;
+
+/*
+* A bean which reacts to domain events. The DomainEventBus calls subscribe() on every
+* DomainEventSubscriber bean once the application context has been created, so
+* subscribers are registered even if they are initialized lazily.
+* */
+
+public interface DomainEventSubscriber {
+
+    void subscribe(DomainEventBus eventBus);
+}
@@ -0,0 +1,17 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* A post was created in a subreddit. */
+
+@Value
+public class PostCreated implements DomainEvent {
+    private Long postId;
+    private Long userId;
+    private Long subredditId;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
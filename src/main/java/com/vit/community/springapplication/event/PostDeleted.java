@@ -0,0 +1,16 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* A post was deleted together with its comments and votes. */
+
+@Value
+public class PostDeleted implements DomainEvent {
+    private Long postId;
+    private Long userId;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* The name or description of a post was edited. */
+
+@Value
+public class PostUpdated implements DomainEvent {
+    private Long postId;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
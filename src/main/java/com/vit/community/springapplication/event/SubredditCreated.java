@@ -0,0 +1,16 @@
+package com.vit.community.springapplication.event;
+
+import lombok.Value;
+
+/* A subreddit was created. */
+
+@Value
+public class SubredditCreated implements DomainEvent {
+    private Long subredditId;
+    private String name;
+
+    @Override
+    public Long getAggregateId() {
+        return subredditId;
+    }
+}
@@ -0,0 +1,19 @@
+package com.vit.community.springapplication.event;
+
+import com.vit.community.springapplication.model.VoteType;
+import lombok.Value;
+
+/* A user voted on a post. voteCount is the vote count of the post after the vote. */
+
+@Value
+public class VoteCast implements DomainEvent {
+    private Long postId;
+    private Long userId;
+    private VoteType voteType;
+    private Integer voteCount;
+
+    @Override
+    public Long getAggregateId() {
+        return postId;
+    }
+}
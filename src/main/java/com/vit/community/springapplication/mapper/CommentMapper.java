@@ -15,6 +15,10 @@ public interface CommentMapper {
     @Mapping(target = "createdDate", expression = "java(java.time.Instant.now())")
     @Mapping(target = "post", source = "post")
     @Mapping(target = "user", source = "user")
+    @Mapping(target = "upVotes", ignore = true)
+    @Mapping(target = "downVotes", ignore = true)
+    @Mapping(target = "voteCount", ignore = true)
+    @Mapping(target = "score", ignore = true)
     Comment map(CommentsDto commentsDto, Post post, User user);
 
     @Mapping(target = "postId", expression = "java(comment.getPost().getPostId())")
@@ -1,12 +1,15 @@
 package com.vit.community.springapplication.mapper;
 
 import com.github.marlonlom.utilities.timeago.TimeAgo;
+import com.vit.community.springapplication.dto.LinkPreviewDto;
 import com.vit.community.springapplication.dto.PostRequest;
 import com.vit.community.springapplication.dto.PostResponse;
 import com.vit.community.springapplication.model.*;
 import com.vit.community.springapplication.repository.CommentRepository;
 import com.vit.community.springapplication.repository.VoteRepository;
 import com.vit.community.springapplication.service.AuthService;
+import com.vit.community.springapplication.service.LinkPreviewService;
+import com.vit.community.springapplication.service.PostViewService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,12 +25,17 @@ public abstract class PostMapper {
     private VoteRepository voteRepository;
     @Autowired
     private AuthService authService;
+    @Autowired
+    private LinkPreviewService linkPreviewService;
+    @Autowired
+    private PostViewService postViewService;
 
 
     @Mapping(target = "createdDate", expression = "java(java.time.Instant.now())")
     @Mapping(target = "description", source = "postRequest.description")
     @Mapping(target = "subreddit", source = "subreddit")
     @Mapping(target = "voteCount", constant = "0")
+    @Mapping(target = "revision", constant = "0")
     @Mapping(target = "user", source = "user")
     public abstract Post map(PostRequest postRequest, Subreddit subreddit, User user);
 
@@ -35,19 +43,29 @@ public abstract class PostMapper {
     @Mapping(target = "subredditName", source = "subreddit.name")
     @Mapping(target = "userName", source = "user.username")
     @Mapping(target = "commentCount", expression = "java(commentCount(post))")
+    @Mapping(target = "viewCount", expression = "java(viewCount(post))")
     @Mapping(target = "duration", expression = "java(getDuration(post))")
     @Mapping(target = "upVote", expression = "java(isPostUpVoted(post))")
     @Mapping(target = "downVote", expression = "java(isPostDownVoted(post))")
+    @Mapping(target = "linkPreview", expression = "java(linkPreview(post))")
     public abstract PostResponse mapToDto(Post post);
 
     Integer commentCount(Post post) {
-        return commentRepository.findByPost(post).size();
+        return (int) commentRepository.countByPost(post);
+    }
+
+    Long viewCount(Post post) {
+        return postViewService.getViewCount(post.getPostId());
     }
 
     String getDuration(Post post) {
         return TimeAgo.using(post.getCreatedDate().toEpochMilli());
     }
 
+    LinkPreviewDto linkPreview(Post post) {
+        return linkPreviewService.getPreview(post.getUrl());
+    }
+
     boolean isPostUpVoted(Post post) {
         return checkVoteType(post, VoteType.UPVOTE);
     }
@@ -0,0 +1,56 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+import static javax.persistence.GenerationType.IDENTITY;
+
+/*
+ * Corresponds to the change_log_entry table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ * @Builder is a useful mechanism for using the Builder pattern
+ * without writing boilerplate code.
+ *
+ * Append-only log of post and comment changes, written in the same transaction
+ * as the change itself. Clients sync by reading the entries after the last
+ * sequence number they have seen (see ChangeLogService).
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = @Index(name = "idx_change_log_entity", columnList = "entityType, entityId"))
+public class ChangeLogEntry {
+//    Primary Key, increasing in insertion order.
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long seq;
+
+//    Whether the entry refers to a post or a comment.
+    private ChangeType entityType;
+
+//    The postId or comment id of the changed entity.
+    private Long entityId;
+
+//    The post the entity belongs to, the post itself for post entries.
+    private Long postId;
+
+//    Whether the entity was created/changed or deleted.
+    private ChangeOperation operation;
+
+//    JSON snapshot of the entity after the change, null for deletions.
+    @Lob
+    private String payload;
+
+//    Time at which the change was made.
+    private Instant createdDate;
+}
@@ -0,0 +1,7 @@
+package com.vit.community.springapplication.model;
+
+//Enum to distinguish whether a change log entry carries the new state of an entity or its deletion.
+
+public enum ChangeOperation {
+    UPSERT, DELETE
+}
@@ -0,0 +1,7 @@
+package com.vit.community.springapplication.model;
+
+//Enum to distinguish the kind of entity a change log entry refers to.
+
+public enum ChangeType {
+    POST, COMMENT
+}
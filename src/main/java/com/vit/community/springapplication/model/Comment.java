@@ -17,13 +17,16 @@ import static javax.persistence.GenerationType.IDENTITY;
  * Lombok library generates the boilerplate code like constructors,
  * getters, setters, equals and hashCode functions at compile time.
  *
- * Stores the comments created by users on posts.
+ * Stores the comments created by users on posts, with their vote counts and the
+ * score by which the "best" comments of a post are listed first.
  */
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = {@Index(name = "idx_comment_post_score", columnList = "postId, score"),
+        @Index(name = "idx_comment_post_vote_count", columnList = "postId, voteCount")})
 public class Comment {
 //    Primary Key
     @Id
@@ -48,4 +51,20 @@ public class Comment {
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "userId", referencedColumnName = "userId")
     private User user;
+
+//    Votes cast on this comment, maintained by CommentVoteService together with the comment_vote rows.
+//    The column defaults fill in comments created before comments could be voted on.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer upVotes = 0;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer downVotes = 0;
+
+//    upVotes - downVotes, the order of the "top" comments.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private Integer voteCount = 0;
+
+//    Lower bound of the Wilson score interval of the upvote ratio, the order of the "best" comments.
+    @Column(nullable = false, columnDefinition = "double default 0")
+    private Double score = 0.0;
 }
@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.model;
+
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+
+import java.util.Arrays;
+
+//Enum of the orders in which the comments of a post can be listed.
+
+public enum CommentSort {
+//    Highest Wilson score first, NEW newest first, TOP highest voteCount first.
+    BEST, NEW, TOP,
+    ;
+
+    public static CommentSort lookup(String name) {
+        return Arrays.stream(CommentSort.values())
+                .filter(value -> value.name().equalsIgnoreCase(name))
+                .findAny()
+                .orElseThrow(() -> new SpringCommunityException("Unknown comment sort - " + name));
+    }
+}
@@ -0,0 +1,51 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.IDENTITY;
+
+/*
+ * Corresponds to the comment_vote table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the votes casted by users on comments, one row per user per comment which
+ * is updated when the user changes the direction of the vote.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_comment_vote_comment_user",
+        columnNames = {"commentId", "userId"}))
+public class CommentVote {
+//    Primary Key
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long id;
+
+//    Distinguishes whether the vote is an upvote or a downvote.
+    private VoteType voteType;
+
+//    The comment on which this vote is cast. A comment can have multiple votes.
+    @NotNull
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "commentId", referencedColumnName = "id")
+    private Comment comment;
+
+//    The user who has cast this vote. A user can vote on multiple comments.
+    @NotNull
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "userId", referencedColumnName = "userId")
+    private User user;
+}
@@ -0,0 +1,57 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+import static javax.persistence.GenerationType.IDENTITY;
+
+/*
+ * Corresponds to the link_preview table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the title, description and image of the pages the posts link to, fetched
+ * once per distinct url and shared by all posts linking to it.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_link_preview_url_hash", columnNames = "urlHash"))
+public class LinkPreview {
+//    Primary Key
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long id;
+
+//    Hex encoded MD5 hash of the url, the lookup key as urls are too long to index.
+    @Column(length = 32)
+    private String urlHash;
+
+    @Column(length = 2048)
+    private String url;
+
+//    False when the page could not be fetched or is not HTML, the other fields are then empty.
+    private boolean available;
+
+    @Column(length = 300)
+    private String title;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(length = 2048)
+    private String imageUrl;
+
+    private String siteName;
+
+    private Instant fetchedDate;
+}
@@ -0,0 +1,61 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.IDENTITY;
+
+/*
+ * Corresponds to the media_attachment table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the files attached to posts. The file content is kept in the media store
+ * under its SHA-256 hash, so identical uploads share one file on disk.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = @Index(name = "idx_media_attachment_post", columnList = "postId"))
+public class MediaAttachment {
+//    Primary Key
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long id;
+
+//    Hex encoded SHA-256 hash of the content, the key of the file in the media store.
+    @NotNull
+    @Column(length = 64)
+    private String contentHash;
+
+//    Detected from the content, not taken from the upload.
+    private String contentType;
+
+    private Long size;
+
+    private String fileName;
+
+//    The post this file is attached to. A post can have multiple attachments.
+    @NotNull
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "postId", referencedColumnName = "postId")
+    private Post post;
+
+//    The user who has uploaded this file.
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "userId", referencedColumnName = "userId")
+    private User user;
+
+    private Instant createdDate;
+}
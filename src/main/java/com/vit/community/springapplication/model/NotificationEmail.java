@@ -6,7 +6,7 @@ import lombok.NoArgsConstructor;
 
 /*
 * This class encapsulates the email subject, recipient, and body
-* in a single object.
+* in a single object. The body is HTML, the textBody its plain text alternative.
 *
 * Lombok library generates the boilerplate code like constructors,
 * getters, setters, equals and hashCode functions at compile time.
@@ -20,4 +20,5 @@ public class NotificationEmail {
     private String subject;
     private String recipient;
     private String body;
+    private String textBody;
 }
@@ -68,4 +68,8 @@ public class Post {
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "id", referencedColumnName = "id")
     private Subreddit subreddit;
+
+//    Modification counter, bumped whenever the post, its votes or its comments change.
+//    Used to derive the ETag of post and comment reads without building the response.
+    private Long revision;
 }
@@ -0,0 +1,64 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/*
+ * Corresponds to the post_feed_view table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Denormalized read model of the posts: one flat row per post holding everything
+ * the feeds show, so feed reads need no joins with the user, subreddit, comment
+ * and vote tables. Maintained by the PostFeedService from the post, vote and
+ * comment writes, and rebuilt from the source tables by its repair job.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_post_feed_subreddit", columnList = "subredditId, postId"),
+        @Index(name = "idx_post_feed_user", columnList = "userId, postId"),
+        @Index(name = "idx_post_feed_score", columnList = "score")
+})
+public class PostFeedView {
+//    Primary Key, same as the postId of the post.
+    @Id
+    private Long postId;
+
+    private String postName;
+
+    private String url;
+
+    @Lob
+    private String description;
+
+//    The user who has created the post, and the username at the time of the last write.
+    private Long userId;
+    private String userName;
+
+//    The subreddit the post belongs to.
+    private Long subredditId;
+    private String subredditName;
+
+    private Integer voteCount;
+
+    private Integer commentCount;
+
+//    Estimated distinct viewers, updated when the PostViewService flushes its sketches.
+    private Long viewCount;
+
+//    Ranking of the post: grows logarithmically with the votes and linearly with the age.
+    private Double score;
+
+    private Instant createdDate;
+}
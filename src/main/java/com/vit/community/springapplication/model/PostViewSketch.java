@@ -0,0 +1,40 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import java.time.Instant;
+
+/*
+ * Corresponds to the post_view_sketch table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the serialized HyperLogLog sketch of the distinct viewers of a post,
+ * and the view count estimated from it.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+public class PostViewSketch {
+//    Primary Key, same as the postId of the post.
+    @Id
+    private Long postId;
+
+//    HyperLogLog.toBytes(): the precision followed by the registers.
+    @Lob
+    private byte[] registers;
+
+    private Long viewCount;
+
+    private Instant updatedDate;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -22,6 +24,9 @@ import static javax.persistence.GenerationType.IDENTITY;
  * without writing boilerplate code.
  *
  * Categorizes similar types of posts under a single category (subreddit).
+ *
+ * Subreddits are read on every post creation and rarely change, so they are kept
+ * in the "subreddit" region of the Hibernate second-level cache (see ehcache.xml).
  * */
 
 @Data
@@ -29,6 +34,8 @@ import static javax.persistence.GenerationType.IDENTITY;
 @NoArgsConstructor
 @Entity
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "subreddit")
 public class Subreddit {
 //    Primary Key
     @Id
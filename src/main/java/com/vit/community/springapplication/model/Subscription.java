@@ -0,0 +1,51 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.Instant;
+
+import static javax.persistence.FetchType.LAZY;
+import static javax.persistence.GenerationType.IDENTITY;
+
+/*
+ * Corresponds to the subscription table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the subreddits users are subscribed to, whose posts make up their home feed.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_subscription_user_subreddit",
+        columnNames = {"userId", "subredditId"}),
+        indexes = @Index(name = "idx_subscription_subreddit", columnList = "subredditId"))
+public class Subscription {
+//    Primary Key
+    @Id
+    @GeneratedValue(strategy = IDENTITY)
+    private Long id;
+
+//    The subscribed user. A user can subscribe to many subreddits.
+    @NotNull
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "userId", referencedColumnName = "userId")
+    private User user;
+
+//    The subreddit subscribed to. A subreddit can have many subscribers.
+    @NotNull
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "subredditId", referencedColumnName = "id")
+    private Subreddit subreddit;
+
+    private Instant createdDate;
+}
@@ -3,7 +3,10 @@ package com.vit.community.springapplication.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -22,12 +25,17 @@ import static javax.persistence.GenerationType.IDENTITY;
  * getters, setters, equals and hashCode functions at compile time.
  *
  * Stores the user credentials like username, password, email, etc.
+ *
+ * Users are read on almost every request but rarely change, so they are kept
+ * in the "user" region of the Hibernate second-level cache (see ehcache.xml).
 */
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
 //    Primary Key
     @Id
@@ -0,0 +1,40 @@
+package com.vit.community.springapplication.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/*
+ * Corresponds to the user_stats table in the database.
+ *
+ * Lombok library generates the boilerplate code like constructors,
+ * getters, setters, equals and hashCode functions at compile time.
+ *
+ * Stores the precomputed activity counters of a user shown on the profile page.
+ * The counters are updated incrementally by the UserStatsService whenever a post,
+ * comment or vote is saved or deleted, so the profile never has to count rows.
+ * */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+public class UserStats {
+//    Primary Key, same as the userId of the user these counters belong to.
+    @Id
+    private Long userId;
+
+//    Number of posts created by the user.
+    private long postCount;
+
+//    Number of comments created by the user.
+    private long commentCount;
+
+//    Sum of the vote counts of all posts created by the user.
+    private long karma;
+}
@@ -19,7 +19,8 @@ import static javax.persistence.GenerationType.IDENTITY;
  * @Builder is a useful mechanism for using the Builder pattern
  * without writing boilerplate code.
  *
- * Stores the votes casted by users on posts.
+ * Stores the votes casted by users on posts, one row per user per post which is
+ * updated when the user changes the direction of the vote.
  * */
 
 @Data
@@ -27,6 +28,7 @@ import static javax.persistence.GenerationType.IDENTITY;
 @NoArgsConstructor
 @Entity
 @Builder
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_vote_post_user", columnNames = {"postId", "userId"}))
 public class Vote {
 //    Primary Key
     @Id
@@ -0,0 +1,31 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.ChangeLogEntry;
+import com.vit.community.springapplication.model.ChangeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+    List<ChangeLogEntry> findBySeqGreaterThanAndCreatedDateBeforeOrderBySeq(Long seq, Instant createdDate,
+                                                                            Pageable pageable);
+
+//    The ids among the given ones of the entities of the given type which have an entry.
+    @Query("select distinct e.entityId from ChangeLogEntry e where e.entityType = :type and e.entityId in :ids")
+    List<Long> findEntityIds(@Param("type") ChangeType type, @Param("ids") Collection<Long> ids);
+
+//    Deletes the entries which are superseded by a later entry for the same entity, once that entry has settled.
+    @Modifying
+    @Query(value = "delete older from change_log_entry older join change_log_entry newer " +
+            "on newer.entity_type = older.entity_type and newer.entity_id = older.entity_id " +
+            "and newer.seq > older.seq where newer.created_date < :settled", nativeQuery = true)
+    int deleteSuperseded(@Param("settled") Instant settled);
+}
@@ -1,16 +1,70 @@
 package com.vit.community.springapplication.repository;
 
+import com.vit.community.springapplication.dto.CommentExportRow;
 import com.vit.community.springapplication.model.Comment;
 import com.vit.community.springapplication.model.Post;
 import com.vit.community.springapplication.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.vit.community.springapplication.repository.StreamingQueries.STREAMING_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPost(Post post);
 
-    List<Comment> findAllByUser(User user);
+    long countByPost(Post post);
+
+//    Newest first, keyset paginated by id: the next page starts after the last id returned.
+    List<Comment> findAllByUserOrderByIdDesc(User user, Pageable pageable);
+
+    List<Comment> findAllByUserAndIdLessThanOrderByIdDesc(User user, Long id, Pageable pageable);
+
+//    Locked, so that concurrent votes on a comment update its counts and score one after the other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Comment c where c.id = :id")
+    Optional<Comment> findByIdForUpdate(@Param("id") Long id);
+
+//    Comments of a post in the orders of CommentSort, read from the (postId, score) and (postId, voteCount)
+//    indexes. Keyset paginated: the next page starts after the comment given as cursor, ties are broken by id.
+    List<Comment> findByPostOrderByIdDesc(Post post, Pageable pageable);
+
+    List<Comment> findByPostAndIdLessThanOrderByIdDesc(Post post, Long id, Pageable pageable);
+
+    List<Comment> findByPostOrderByScoreDescIdDesc(Post post, Pageable pageable);
+
+    @Query("select c from Comment c where c.post = :post and (c.score < :score or (c.score = :score and c.id < :id)) " +
+            "order by c.score desc, c.id desc")
+    List<Comment> findByPostAfterScore(@Param("post") Post post, @Param("score") Double score,
+                                       @Param("id") Long id, Pageable pageable);
+
+    List<Comment> findByPostOrderByVoteCountDescIdDesc(Post post, Pageable pageable);
+
+    @Query("select c from Comment c where c.post = :post and (c.voteCount < :voteCount or " +
+            "(c.voteCount = :voteCount and c.id < :id)) order by c.voteCount desc, c.id desc")
+    List<Comment> findByPostAfterVoteCount(@Param("post") Post post, @Param("voteCount") Integer voteCount,
+                                           @Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("select new com.vit.community.springapplication.dto.CommentExportRow(c.id, p.postId, u.username, " +
+            "c.text, c.createdDate) from Comment c left join c.post p left join c.user u order by c.id")
+    Stream<CommentExportRow> streamAllForExport();
+
+//    Same rows as the export, one page at a time starting after the given comment id.
+    @Query("select new com.vit.community.springapplication.dto.CommentExportRow(c.id, p.postId, u.username, " +
+            "c.text, c.createdDate) from Comment c left join c.post p left join c.user u where c.id > :after " +
+            "order by c.id")
+    List<CommentExportRow> findExportRowsAfter(@Param("after") Long after, Pageable pageable);
 }
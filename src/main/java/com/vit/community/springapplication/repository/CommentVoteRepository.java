@@ -0,0 +1,26 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.Comment;
+import com.vit.community.springapplication.model.CommentVote;
+import com.vit.community.springapplication.model.Post;
+import com.vit.community.springapplication.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CommentVoteRepository extends JpaRepository<CommentVote, Long> {
+    Optional<CommentVote> findByCommentAndUser(Comment comment, User user);
+
+    @Modifying
+    @Query("delete from CommentVote v where v.comment = :comment")
+    int deleteByComment(@Param("comment") Comment comment);
+
+    @Modifying
+    @Query("delete from CommentVote v where v.comment in (select c from Comment c where c.post = :post)")
+    int deleteByPost(@Param("post") Post post);
+}
@@ -0,0 +1,16 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.LinkPreview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LinkPreviewRepository extends JpaRepository<LinkPreview, Long> {
+    Optional<LinkPreview> findByUrlHash(String urlHash);
+
+    List<LinkPreview> findByUrlHashIn(Collection<String> urlHashes);
+}
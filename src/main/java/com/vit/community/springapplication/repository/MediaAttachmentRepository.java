@@ -0,0 +1,20 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.MediaAttachment;
+import com.vit.community.springapplication.model.Post;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MediaAttachmentRepository extends JpaRepository<MediaAttachment, Long> {
+    List<MediaAttachment> findAllByPostPostIdOrderById(Long postId);
+
+    @Modifying
+    @Query("delete from MediaAttachment m where m.post = :post")
+    int deleteAllByPost(@Param("post") Post post);
+}
@@ -0,0 +1,29 @@
+package com.vit.community.springapplication.repository;
+
+import java.time.Instant;
+
+/*
+* Projection of a post_feed_view row with the columns of a PostResponse. Spring Data
+* selects only these columns and does not load PostFeedView entities.
+* */
+
+public interface PostFeedItem {
+    Long getPostId();
+
+    String getPostName();
+
+    String getUrl();
+
+    String getDescription();
+
+    String getUserName();
+
+    String getSubredditName();
+
+    Integer getVoteCount();
+
+    Integer getCommentCount();
+    Long getViewCount();
+
+    Instant getCreatedDate();
+}
@@ -0,0 +1,79 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.PostFeedView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PostFeedViewRepository extends JpaRepository<PostFeedView, Long> {
+
+//    Feed reads, newest first, keyset paginated by postId.
+    List<PostFeedItem> findAllByOrderByPostIdDesc(Pageable pageable);
+
+    List<PostFeedItem> findByPostIdLessThanOrderByPostIdDesc(Long postId, Pageable pageable);
+
+    List<PostFeedItem> findBySubredditIdOrderByPostIdDesc(Long subredditId);
+
+    List<PostFeedItem> findByUserIdOrderByPostIdDesc(Long userId, Pageable pageable);
+
+    List<PostFeedItem> findByUserIdAndPostIdLessThanOrderByPostIdDesc(Long userId, Long postId, Pageable pageable);
+
+    Optional<PostFeedItem> findByPostId(Long postId);
+
+//    Home feed reads over the subscribed subreddits, and hydration of timeline post ids.
+    List<PostFeedItem> findBySubredditIdInOrderByPostIdDesc(Collection<Long> subredditIds, Pageable pageable);
+
+    List<PostFeedItem> findBySubredditIdInAndPostIdLessThanOrderByPostIdDesc(Collection<Long> subredditIds,
+                                                                             Long postId, Pageable pageable);
+
+    List<PostFeedItem> findByPostIdIn(Collection<Long> postIds);
+
+    @Query("select f.postId from PostFeedView f where f.subredditId in :subredditIds order by f.postId desc")
+    List<Long> findPostIdsBySubredditIds(@Param("subredditIds") Collection<Long> subredditIds, Pageable pageable);
+
+    @Modifying
+    @Query("update PostFeedView f set f.postName = :postName, f.description = :description where f.postId = :postId")
+    int updateContent(@Param("postId") Long postId, @Param("postName") String postName,
+                      @Param("description") String description);
+
+    @Modifying
+    @Query("update PostFeedView f set f.voteCount = :voteCount, f.score = :score where f.postId = :postId")
+    int updateVotes(@Param("postId") Long postId, @Param("voteCount") Integer voteCount, @Param("score") Double score);
+
+    @Modifying
+    @Query("update PostFeedView f set f.commentCount = :commentCount where f.postId = :postId")
+    int updateCommentCount(@Param("postId") Long postId, @Param("commentCount") Integer commentCount);
+
+    @Modifying
+    @Query("update PostFeedView f set f.viewCount = :viewCount where f.postId = :postId")
+    int updateViewCount(@Param("postId") Long postId, @Param("viewCount") Long viewCount);
+
+    @Modifying
+    @Query("delete from PostFeedView f where f.postId = :postId")
+    int deleteRow(@Param("postId") Long postId);
+
+    @Modifying
+    @Query(value = "delete from post_feed_view", nativeQuery = true)
+    int deleteAllRows();
+
+//    Same score as PostFeedService.score(): sign(votes) * log10(max(|votes|, 1)) + epoch seconds / 45000
+    @Modifying
+    @Query(value = "insert into post_feed_view (post_id, post_name, url, description, user_id, user_name, " +
+            "subreddit_id, subreddit_name, vote_count, comment_count, view_count, score, created_date) " +
+            "select p.post_id, p.post_name, p.url, p.description, p.user_id, u.username, p.id, s.name, " +
+            "coalesce(p.vote_count, 0), (select count(*) from comment c where c.post_id = p.post_id), " +
+            "coalesce((select v.view_count from post_view_sketch v where v.post_id = p.post_id), 0), " +
+            "sign(coalesce(p.vote_count, 0)) * log10(greatest(abs(coalesce(p.vote_count, 0)), 1)) " +
+            "+ timestampdiff(SECOND, '1970-01-01', p.created_date) / 45000, p.created_date " +
+            "from post p left join user u on u.user_id = p.user_id left join subreddit s on s.id = p.id",
+            nativeQuery = true)
+    int insertAllFromPosts();
+}
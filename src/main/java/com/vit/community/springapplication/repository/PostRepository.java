@@ -1,16 +1,47 @@
 package com.vit.community.springapplication.repository;
 
+import com.vit.community.springapplication.dto.PostExportRow;
 import com.vit.community.springapplication.model.Post;
 import com.vit.community.springapplication.model.Subreddit;
-import com.vit.community.springapplication.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static com.vit.community.springapplication.repository.StreamingQueries.STREAMING_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findAllBySubreddit(Subreddit subreddit);
 
-    List<Post> findByUser(User user);
+    @Query("select coalesce(max(p.postId), 0) from Post p")
+    Long findMaxId();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("select new com.vit.community.springapplication.dto.PostExportRow(p.postId, p.postName, p.url, " +
+            "p.description, u.username, s.name, p.voteCount, p.createdDate) " +
+            "from Post p left join p.user u left join p.subreddit s order by p.postId")
+    Stream<PostExportRow> streamAllForExport();
+
+//    Same rows as the export, one page at a time starting after the given postId.
+    @Query("select new com.vit.community.springapplication.dto.PostExportRow(p.postId, p.postName, p.url, " +
+            "p.description, u.username, s.name, p.voteCount, p.createdDate) " +
+            "from Post p left join p.user u left join p.subreddit s where p.postId > :after order by p.postId")
+    List<PostExportRow> findExportRowsAfter(@Param("after") Long after, Pageable pageable);
+
+//    Flushes pending changes of the post first, so they cannot overwrite the new revision afterwards.
+    @Modifying(flushAutomatically = true)
+    @Query("update Post p set p.revision = coalesce(p.revision, 0) + 1 where p.postId = :postId")
+    int incrementRevision(@Param("postId") Long postId);
+
+    @Query("select p.revision from Post p where p.postId = :postId")
+    Long findRevision(@Param("postId") Long postId);
 }
@@ -0,0 +1,30 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.PostViewSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PostViewSketchRepository extends JpaRepository<PostViewSketch, Long> {
+
+//    Locked, so that instances flushing the same posts merge into the sketches one after the other.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from PostViewSketch s where s.postId in :postIds")
+    List<PostViewSketch> findAllForUpdate(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select s.viewCount from PostViewSketch s where s.postId = :postId")
+    Optional<Long> findViewCount(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("delete from PostViewSketch s where s.postId = :postId")
+    int deleteRow(@Param("postId") Long postId);
+}
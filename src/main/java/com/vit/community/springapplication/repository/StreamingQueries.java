@@ -0,0 +1,15 @@
+package com.vit.community.springapplication.repository;
+
+/*
+* Query hints shared by the repository methods which return a Stream over a large table,
+* such as the exports and the bulk lookups of the importer.
+* */
+
+final class StreamingQueries {
+
+//    Integer.MIN_VALUE makes the MySQL driver stream rows one at a time instead of buffering the whole result.
+    static final String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQueries() {
+    }
+}
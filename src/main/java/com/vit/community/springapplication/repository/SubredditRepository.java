@@ -2,12 +2,28 @@ package com.vit.community.springapplication.repository;
 
 import com.vit.community.springapplication.model.Subreddit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface SubredditRepository extends JpaRepository<Subreddit, Long> {
 
+//    Served from the query cache and the "subreddit" entity region on repeated lookups.
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = "query.subredditByName")})
     Optional<Subreddit> findByName(String subredditName);
+
+    @Query("select coalesce(max(s.id), 0) from Subreddit s")
+    Long findMaxId();
+
+    @Query("select s.id, s.name from Subreddit s")
+    List<Object[]> findAllIdsAndNames();
 }
@@ -0,0 +1,28 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.Subscription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
+
+    boolean existsByUserUserIdAndSubredditId(Long userId, Long subredditId);
+
+    long countBySubredditId(Long subredditId);
+
+    @Query("select s.subreddit.id from Subscription s where s.user.userId = :userId")
+    List<Long> findSubredditIdsByUserId(@Param("userId") Long userId);
+
+    @Query("select s.user.userId from Subscription s where s.subreddit.id = :subredditId")
+    List<Long> findUserIdsBySubredditId(@Param("subredditId") Long subredditId);
+
+    @Modifying
+    @Query("delete from Subscription s where s.user.userId = :userId and s.subreddit.id = :subredditId")
+    int deleteByUserIdAndSubredditId(@Param("userId") Long userId, @Param("subredditId") Long subredditId);
+}
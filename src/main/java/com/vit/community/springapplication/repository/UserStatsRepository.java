@@ -0,0 +1,48 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.model.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+//    Increments are applied in the database so concurrent writers never overwrite each other. A user without
+//    a row yet gets one built from the post and comment tables, which already contain the change being counted,
+//    so the delta is only added to an existing row. Pending changes are flushed first so the counts see them.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into user_stats (user_id, post_count, comment_count, karma) select :userId, " +
+            "(select count(*) from post p where p.user_id = :userId), " +
+            "(select count(*) from comment c where c.user_id = :userId), " +
+            "(select coalesce(sum(p.vote_count), 0) from post p where p.user_id = :userId) " +
+            "on duplicate key update post_count = user_stats.post_count + :delta, " +
+            "karma = user_stats.karma + :karma", nativeQuery = true)
+    int incrementPosts(@Param("userId") Long userId, @Param("delta") long delta, @Param("karma") long karma);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into user_stats (user_id, post_count, comment_count, karma) select :userId, " +
+            "(select count(*) from post p where p.user_id = :userId), " +
+            "(select count(*) from comment c where c.user_id = :userId), " +
+            "(select coalesce(sum(p.vote_count), 0) from post p where p.user_id = :userId) " +
+            "on duplicate key update comment_count = user_stats.comment_count + :delta", nativeQuery = true)
+    int incrementComments(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into user_stats (user_id, post_count, comment_count, karma) select :userId, " +
+            "(select count(*) from post p where p.user_id = :userId), " +
+            "(select count(*) from comment c where c.user_id = :userId), " +
+            "(select coalesce(sum(p.vote_count), 0) from post p where p.user_id = :userId) " +
+            "on duplicate key update karma = user_stats.karma + :delta", nativeQuery = true)
+    int incrementKarma(@Param("userId") Long userId, @Param("delta") long delta);
+
+//    Builds the counters of a user from the post and comment tables. Does nothing if they already exist.
+    @Modifying
+    @Query(value = "insert ignore into user_stats (user_id, post_count, comment_count, karma) select :userId, " +
+            "(select count(*) from post p where p.user_id = :userId), " +
+            "(select count(*) from comment c where c.user_id = :userId), " +
+            "(select coalesce(sum(p.vote_count), 0) from post p where p.user_id = :userId)", nativeQuery = true)
+    int initialize(@Param("userId") Long userId);
+}
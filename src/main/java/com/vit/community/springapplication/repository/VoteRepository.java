@@ -1,17 +1,38 @@
 package com.vit.community.springapplication.repository;
 
+import com.vit.community.springapplication.dto.VoteExportRow;
 import com.vit.community.springapplication.model.Post;
 import com.vit.community.springapplication.model.User;
 import com.vit.community.springapplication.model.Vote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.vit.community.springapplication.repository.StreamingQueries.STREAMING_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, Long> {
+//    Latest vote, as tables not yet compacted by VoteCompactionService may hold several rows per user and post.
     Optional<Vote> findTopByPostAndUserOrderByVoteIdDesc(Post post, User currentUser);
 
     List<Vote> findByPost(Post post);
+
+//    Vote types of a user on several posts in one query, latest vote last.
+    @Query("select v.post.postId, v.voteType from Vote v where v.user = :user and v.post.postId in :postIds " +
+            "order by v.voteId")
+    List<Object[]> findVoteTypesByUserAndPostIds(@Param("user") User user, @Param("postIds") Collection<Long> postIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE))
+    @Query("select new com.vit.community.springapplication.dto.VoteExportRow(v.voteId, p.postId, u.username, " +
+            "v.voteType) from Vote v left join v.post p left join v.user u order by v.voteId")
+    Stream<VoteExportRow> streamAllForExport();
 }
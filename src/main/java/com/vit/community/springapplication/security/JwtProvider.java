@@ -8,7 +8,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.*;
@@ -28,25 +27,32 @@ import static java.util.Date.from;
 @Service
 public class JwtProvider {
 
-    private KeyStore keyStore;
+    private volatile KeyStore keyStore;
     @Value("${jwt.expiration.time}")
     private Long jwtExpirationInMillis;
 
     /*
-    * Once the JwtProvider instance is loaded, the init() function loads the Java keystore
-    * for signing the JWTs, and throws an exception if it fails to do so.
+    * Loads the Java keystore for signing the JWTs on first use rather than at startup,
+    * and throws an exception if it fails to do so.
     * */
 
-    @PostConstruct
-    public void init() {
-        try {
-            keyStore = KeyStore.getInstance("JKS");
-            InputStream resourceAsStream = getClass().getResourceAsStream("/springblog.jks");
-            keyStore.load(resourceAsStream, "secret".toCharArray());
-        } catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException e) {
-            throw new SpringCommunityException("Exception occurred while loading keystore", e);
+    private KeyStore getKeyStore() {
+        KeyStore loaded = keyStore;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = keyStore;
+                if (loaded == null) {
+                    try (InputStream resourceAsStream = getClass().getResourceAsStream("/springblog.jks")) {
+                        loaded = KeyStore.getInstance("JKS");
+                        loaded.load(resourceAsStream, "secret".toCharArray());
+                    } catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException e) {
+                        throw new SpringCommunityException("Exception occurred while loading keystore", e);
+                    }
+                    keyStore = loaded;
+                }
+            }
         }
-
+        return loaded;
     }
 
     /*
@@ -80,7 +86,7 @@ public class JwtProvider {
 
     private PrivateKey getPrivateKey() {
         try {
-            return (PrivateKey) keyStore.getKey("springblog", "secret".toCharArray());
+            return (PrivateKey) getKeyStore().getKey("springblog", "secret".toCharArray());
         } catch (KeyStoreException | NoSuchAlgorithmException | UnrecoverableKeyException e) {
             throw new SpringCommunityException("Exception occurred while retrieving private key from keystore", e);
         }
@@ -104,7 +110,7 @@ public class JwtProvider {
 
     private PublicKey getPublicKey() {
         try {
-            return keyStore.getCertificate("springblog").getPublicKey();
+            return getKeyStore().getCertificate("springblog").getPublicKey();
         } catch (KeyStoreException e) {
             throw new SpringCommunityException("Exception occured while " +
                     "retrieving public key from keystore", e);
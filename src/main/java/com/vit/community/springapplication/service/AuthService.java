@@ -1,6 +1,7 @@
 package com.vit.community.springapplication.service;
 
 import com.vit.community.springapplication.dto.AuthenticationResponse;
+import com.vit.community.springapplication.dto.AvailabilityResponse;
 import com.vit.community.springapplication.dto.LoginRequest;
 import com.vit.community.springapplication.dto.RefreshTokenRequest;
 import com.vit.community.springapplication.dto.RegisterRequest;
@@ -52,6 +53,7 @@ public class AuthService {
     private final JwtProvider jwtProvider;
     private final RefreshTokenService refreshTokenService;
     private final MailContentBuilder mailContentBuilder;
+    private final SignupAvailabilityService signupAvailabilityService;
 
     /*
     The signup method maps the RegisterRequest object to a new User object and also
@@ -60,9 +62,18 @@ public class AuthService {
     the database, a verification token is generated and sent as part of an email to the
     user. Note that the enabled flag is set as false, as the user is disabled
     after registration, and enabled only after verifying the user’s email address.
+
+    Taken usernames and emails are rejected up front by the SignupAvailabilityService,
+    before any password hashing or database write happens.
     * */
 
     public void signup(RegisterRequest registerRequest) {
+        if (!signupAvailabilityService.isUsernameAvailable(registerRequest.getUsername())) {
+            throw new SpringCommunityException("Username is already taken - " + registerRequest.getUsername());
+        }
+        if (!signupAvailabilityService.isEmailAvailable(registerRequest.getEmail())) {
+            throw new SpringCommunityException("Email is already registered - " + registerRequest.getEmail());
+        }
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setEmail(registerRequest.getEmail());
@@ -73,14 +84,28 @@ public class AuthService {
         user.setEnabled(false);
 
         userRepository.save(user);
+        signupAvailabilityService.register(user);
 
         String token = generateVerificationToken(user);
-        String message = mailContentBuilder.build("Thank you for signing up for VIT Community, " +
+        String message = "Thank you for signing up for VIT Community, " +
                 "please click on the below url to activate your account : " +
-                "http://localhost:8080/api/auth/accountVerification/" + token);
+                "http://localhost:8080/api/auth/accountVerification/" + token;
 
         mailService.sendMail(new NotificationEmail("Please Activate your Account",
-                user.getEmail(), message));
+                user.getEmail(), mailContentBuilder.build(message), mailContentBuilder.buildText(message)));
+    }
+
+    /*
+    * Checks whether the given username and email can still be used for signup.
+    * Values which are not provided are left out of the response.
+    * */
+
+    @Transactional(readOnly = true)
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        return AvailabilityResponse.builder()
+                .usernameAvailable(username == null ? null : signupAvailabilityService.isUsernameAvailable(username))
+                .emailAvailable(email == null ? null : signupAvailabilityService.isEmailAvailable(email))
+                .build();
     }
 
     /*
@@ -0,0 +1,50 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.ImportReport;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/*
+* Command line mode of the bulk import. Starting the application with
+*
+*     --import=/path/to/forum.ndjson
+*
+* imports the given file(s) with the BulkImportService and exits afterwards.
+* */
+
+@Component
+@AllArgsConstructor
+@Slf4j
+public class BulkImportRunner implements ApplicationRunner {
+
+    private final BulkImportService bulkImportService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption("import")) {
+            return;
+        }
+        int exitCode = 0;
+        for (String file : args.getOptionValues("import")) {
+            try (InputStream inputStream = Files.newInputStream(Paths.get(file))) {
+                ImportReport report = bulkImportService.importRecords(inputStream);
+                log.info("Imported {}: {}", file, report);
+            } catch (Exception e) {
+                log.error("Exception occurred while importing {}", file, e);
+                exitCode = 1;
+            }
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+}
@@ -0,0 +1,383 @@
+package com.vit.community.springapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.vit.community.springapplication.dto.ImportRecord;
+import com.vit.community.springapplication.dto.ImportReport;
+import com.vit.community.springapplication.repository.SubredditRepository;
+import com.vit.community.springapplication.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/*
+* The BulkImportService ingests subreddits, posts and comments from an NDJSON stream
+* (one ImportRecord per line), e.g. when migrating an existing forum.
+*
+* Instead of going through PostService and CommentService row by row, it
+* - resolves users and subreddits through in-memory maps loaded once per import,
+* - writes rows with JDBC batch inserts in chunks, several chunks in parallel,
+* - keeps at most parallelism * 2 chunks in memory, so the input size does not matter,
+* - sends no notification emails.
+*
+* Records must be grouped by type in dependency order (subreddits, posts, comments):
+* whenever the type changes all pending chunks are written first.
+* Records referencing unknown users, subreddits or posts, and subreddits or posts whose
+* name is already taken, are skipped and counted.
+* Chunks are committed separately, so a failed import keeps the chunks written so far, and
+* the caches, counters and read models are refreshed for them as after a complete import.
+* */
+
+@Service
+@Slf4j
+public class BulkImportService {
+
+    private static final String INSERT_SUBREDDIT = "insert into subreddit (name, description, created_date, user_user_id) "
+            + "values (?, ?, ?, ?)";
+    private static final String INSERT_POST = "insert into post (post_name, url, description, vote_count, user_id, id, "
+            + "created_date, revision) values (?, ?, ?, 0, ?, ?, ?, 0)";
+    private static final String INSERT_COMMENT = "insert into comment (text, post_id, user_id, created_date) "
+            + "values (?, ?, ?, ?)";
+    private static final String SELECT_SUBREDDIT_IDS = "select id, name from subreddit where name in (:names)";
+    private static final long CHUNK_SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final String SELECT_POST_IDS = "select post_id, post_name from post where post_name in (:names)";
+
+    private final UserRepository userRepository;
+    private final SubredditRepository subredditRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserStatsService userStatsService;
+    private final PostFeedService postFeedService;
+    private final HomeFeedService homeFeedService;
+    private final ChangeLogService changeLogService;
+    private final ObjectReader recordReader;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public BulkImportService(UserRepository userRepository, SubredditRepository subredditRepository,
+                             JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                             UserStatsService userStatsService, PostFeedService postFeedService,
+                             HomeFeedService homeFeedService, ChangeLogService changeLogService,
+                             ObjectMapper objectMapper,
+                             @Value("${import.chunk-size}") int chunkSize,
+                             @Value("${import.parallelism}") int parallelism) {
+        this.userRepository = userRepository;
+        this.subredditRepository = subredditRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.userStatsService = userStatsService;
+        this.postFeedService = postFeedService;
+        this.homeFeedService = homeFeedService;
+        this.changeLogService = changeLogService;
+        this.recordReader = objectMapper.readerFor(ImportRecord.class);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public ImportReport importRecords(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        ImportRun run = new ImportRun(executor, loadUserIds(), loadSubredditIds());
+        boolean finished = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    run.add(line);
+                }
+            }
+            run.finish();
+            finished = true;
+        } finally {
+            executor.shutdownNow();
+            if (!finished) {
+//                The chunks committed so far stay, so they must become visible like a complete import.
+                awaitChunks(executor);
+                try {
+                    refreshAfterImport();
+                } catch (RuntimeException e) {
+                    log.error("Exception occurred while refreshing after a failed bulk import", e);
+                }
+            }
+        }
+        refreshAfterImport();
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        long written = run.subreddits.get() + run.posts.get() + run.comments.get();
+        ImportReport report = ImportReport.builder()
+                .subreddits(run.subreddits.get())
+                .posts(run.posts.get())
+                .comments(run.comments.get())
+                .skipped(run.skipped.get())
+                .failed(run.failed.get())
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(written * 1000 / elapsedMillis)
+                .build();
+        log.info("Bulk import finished: {}", report);
+        return report;
+    }
+
+    private void refreshAfterImport() {
+//        Rows were written around Hibernate, so cached entities and query results may be stale.
+        entityManagerFactory.getCache().evictAll();
+//        Same for the profile counters, which are rebuilt from the tables on the next read.
+        userStatsService.resetAll();
+//        And for the feed read model, which is rebuilt from the imported posts.
+        postFeedService.rebuild();
+        homeFeedService.clear();
+//        Imported rows published no domain events, so sync clients only see them through the backfill.
+        changeLogService.backfill();
+    }
+
+    private void awaitChunks(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(CHUNK_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Import chunks still running after {} s, refreshing without them", CHUNK_SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Long> loadUserIds() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Map<String, Long> userIds = new HashMap<>();
+            try (Stream<Object[]> rows = userRepository.streamAllIdsAndUsernames()) {
+                rows.forEach(row -> userIds.put((String) row[1], (Long) row[0]));
+            }
+            return userIds;
+        });
+    }
+
+    private Map<String, Long> loadSubredditIds() {
+        Map<String, Long> subredditIds = new ConcurrentHashMap<>();
+        for (Object[] row : subredditRepository.findAllIdsAndNames()) {
+            subredditIds.put((String) row[1], (Long) row[0]);
+        }
+        return subredditIds;
+    }
+
+    /*
+    * State of one import: the chunk being filled, the chunks in flight and the counters.
+    * */
+
+    private class ImportRun {
+        private final ExecutorService executor;
+        private final Semaphore chunksInFlight = new Semaphore(parallelism * 2);
+        private final List<Future<?>> pending = new ArrayList<>();
+        private final Map<String, Long> userIds;
+        private final Map<String, Long> subredditIds;
+        private final Set<String> postNames = ConcurrentHashMap.newKeySet();
+        private final AtomicLong subreddits = new AtomicLong();
+        private final AtomicLong posts = new AtomicLong();
+        private final AtomicLong comments = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private List<ImportRecord> chunk = new ArrayList<>();
+        private String chunkType;
+
+        ImportRun(ExecutorService executor, Map<String, Long> userIds, Map<String, Long> subredditIds) {
+            this.executor = executor;
+            this.userIds = userIds;
+            this.subredditIds = subredditIds;
+        }
+
+        void add(String line) {
+            ImportRecord record;
+            try {
+                record = recordReader.readValue(line);
+            } catch (IOException e) {
+                skipped.incrementAndGet();
+                return;
+            }
+            String type = record.getType() == null ? "" : record.getType().toLowerCase(Locale.ROOT);
+            if (!type.equals(chunkType)) {
+                flush();
+                awaitPending();
+                chunkType = type;
+            }
+            chunk.add(record);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            awaitPending();
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<ImportRecord> records = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            switch (chunkType) {
+                case "subreddit":
+//                    Later posts are resolved against these subreddits, so write them right away.
+                    writeSubreddits(records);
+                    break;
+                case "post":
+                    submit(records, () -> writePosts(records));
+                    break;
+                case "comment":
+                    submit(records, () -> writeComments(records));
+                    break;
+                default:
+                    skipped.addAndGet(records.size());
+            }
+        }
+
+        private void submit(List<ImportRecord> records, Runnable task) {
+            chunksInFlight.acquireUninterruptibly();
+            pending.add(executor.submit(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Exception occurred while importing a chunk of {} {} records",
+                            records.size(), chunkType, e);
+                    failed.addAndGet(records.size());
+                } finally {
+                    chunksInFlight.release();
+                }
+            }));
+        }
+
+        private void awaitPending() {
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Import interrupted", e);
+                } catch (ExecutionException e) {
+                    log.error("Import chunk failed", e.getCause());
+                }
+            }
+            pending.clear();
+        }
+
+        private void writeSubreddits(List<ImportRecord> records) {
+            Map<String, ImportRecord> valid = new LinkedHashMap<>();
+            for (ImportRecord record : records) {
+                if (!StringUtils.hasText(record.getName()) || !StringUtils.hasText(record.getDescription())
+                        || !userIds.containsKey(record.getUserName())
+                        || subredditIds.containsKey(record.getName()) || valid.containsKey(record.getName())) {
+                    skipped.incrementAndGet();
+                } else {
+                    valid.put(record.getName(), record);
+                }
+            }
+            if (valid.isEmpty()) {
+                return;
+            }
+            List<Object[]> rows = valid.values().stream()
+                    .map(record -> new Object[]{record.getName(), record.getDescription(),
+                            timestamp(record.getCreatedDate()), userIds.get(record.getUserName())})
+                    .collect(toList());
+            inTransaction(() -> jdbcTemplate.batchUpdate(INSERT_SUBREDDIT, rows));
+            namedParameterJdbcTemplate.query(SELECT_SUBREDDIT_IDS, singletonMap("names", valid.keySet()),
+                    resultSet -> {
+                        subredditIds.put(resultSet.getString("name"), resultSet.getLong("id"));
+                    });
+            subreddits.addAndGet(rows.size());
+        }
+
+//        Post names are unique: names which already exist or were taken by another record of this run are skipped.
+        private void writePosts(List<ImportRecord> records) {
+            Set<String> names = records.stream()
+                    .map(ImportRecord::getPostName)
+                    .filter(StringUtils::hasText)
+                    .collect(toSet());
+            Set<String> existingNames = new HashSet<>();
+            if (!names.isEmpty()) {
+                namedParameterJdbcTemplate.query(SELECT_POST_IDS, singletonMap("names", names),
+                        resultSet -> {
+                            existingNames.add(resultSet.getString("post_name"));
+                        });
+            }
+            List<Object[]> rows = new ArrayList<>(records.size());
+            for (ImportRecord record : records) {
+                Long userId = userIds.get(record.getUserName());
+                Long subredditId = subredditIds.get(record.getSubredditName());
+                if (userId == null || subredditId == null || !StringUtils.hasText(record.getPostName())
+                        || existingNames.contains(record.getPostName()) || !postNames.add(record.getPostName())) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                rows.add(new Object[]{record.getPostName(), record.getUrl(), record.getDescription(),
+                        userId, subredditId, timestamp(record.getCreatedDate())});
+            }
+            inTransaction(() -> jdbcTemplate.batchUpdate(INSERT_POST, rows));
+            posts.addAndGet(rows.size());
+        }
+
+        private void writeComments(List<ImportRecord> records) {
+            Set<String> postNames = records.stream()
+                    .map(ImportRecord::getPostName)
+                    .filter(Objects::nonNull)
+                    .collect(toSet());
+            Map<String, Long> postIds = new HashMap<>();
+            if (!postNames.isEmpty()) {
+                namedParameterJdbcTemplate.query(SELECT_POST_IDS, singletonMap("names", postNames),
+                        resultSet -> {
+                            postIds.put(resultSet.getString("post_name"), resultSet.getLong("post_id"));
+                        });
+            }
+            List<Object[]> rows = new ArrayList<>(records.size());
+            for (ImportRecord record : records) {
+                Long userId = userIds.get(record.getUserName());
+                Long postId = postIds.get(record.getPostName());
+                if (userId == null || postId == null || !StringUtils.hasText(record.getText())) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                rows.add(new Object[]{record.getText(), postId, userId, timestamp(record.getCreatedDate())});
+            }
+            inTransaction(() -> jdbcTemplate.batchUpdate(INSERT_COMMENT, rows));
+            comments.addAndGet(rows.size());
+        }
+
+        private void inTransaction(Runnable work) {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                work.run();
+                return null;
+            });
+        }
+
+        private Timestamp timestamp(Instant instant) {
+            return Timestamp.from(instant != null ? instant : Instant.now());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.vit.community.springapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vit.community.springapplication.dto.ChangeDto;
+import com.vit.community.springapplication.dto.CommentExportRow;
+import com.vit.community.springapplication.dto.PostExportRow;
+import com.vit.community.springapplication.dto.SyncResponse;
+import com.vit.community.springapplication.event.*;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import com.vit.community.springapplication.model.*;
+import com.vit.community.springapplication.repository.ChangeLogRepository;
+import com.vit.community.springapplication.repository.CommentRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/*
+* The ChangeLogService maintains the change log (a transactional outbox) and serves
+* the incremental sync API.
+*
+* It subscribes to the post and comment domain events in the publishing transaction,
+* so an entry is committed if and only if the change itself is. Votes are recorded as
+* changes of the post, whose snapshot contains the vote count. Deleting a post implies
+* the deletion of its comments.
+*
+* Reads only return entries older than the settle delay: sequence numbers are assigned
+* at insert time, so a transaction may commit a lower number after a reader has already
+* moved past it. The settle delay must exceed the duration of the write transactions.
+*
+* A scheduled compaction removes entries superseded by a later entry for the same entity,
+* so the log does not grow with every vote. Batches are compacted the same way before they
+* are returned. Posts and comments written without domain events, because they predate the
+* log or were bulk imported, are backfilled with an entry of their current state at startup
+* and after every import, so that a sync from 0 returns the current state.
+* */
+
+@Service
+@Slf4j
+public class ChangeLogService implements DomainEventSubscriber {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectWriter postWriter;
+    private final ObjectWriter commentWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final long settleMillis;
+
+    public ChangeLogService(ChangeLogRepository changeLogRepository, PostRepository postRepository,
+                            CommentRepository commentRepository, JsonArrayWriter jsonArrayWriter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${sync.settle-ms}") long settleMillis) {
+        this.changeLogRepository = changeLogRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postWriter = jsonArrayWriter.writerFor(PostExportRow.class);
+        this.commentWriter = jsonArrayWriter.writerFor(CommentExportRow.class);
+        this.settleMillis = settleMillis;
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribeInTransaction(PostCreated.class, "change-log", event -> recordPost(event.getPostId()));
+        eventBus.subscribeInTransaction(PostUpdated.class, "change-log", event -> recordPost(event.getPostId()));
+        eventBus.subscribeInTransaction(VoteCast.class, "change-log", event -> recordPost(event.getPostId()));
+        eventBus.subscribeInTransaction(PostDeleted.class, "change-log",
+                event -> record(ChangeType.POST, event.getPostId(), event.getPostId(), ChangeOperation.DELETE, null));
+        eventBus.subscribeInTransaction(CommentAdded.class, "change-log", event -> recordComment(event.getCommentId()));
+        eventBus.subscribeInTransaction(CommentDeleted.class, "change-log",
+                event -> record(ChangeType.COMMENT, event.getCommentId(), event.getPostId(), ChangeOperation.DELETE, null));
+    }
+
+    /*
+    * Returns the changes after the given sequence number, at most limit entries read from
+    * the log, with only the latest change per post or comment.
+    * */
+
+    @Transactional(readOnly = true)
+    public SyncResponse getChangesSince(long since, int limit) {
+        int batchSize = Math.max(1, Math.min(limit, MAX_BATCH_SIZE));
+        Instant settled = Instant.now().minusMillis(settleMillis);
+        List<ChangeLogEntry> entries = changeLogRepository.findBySeqGreaterThanAndCreatedDateBeforeOrderBySeq(
+                since, settled, PageRequest.of(0, batchSize));
+        Map<String, ChangeDto> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.getEntityType() + ":" + entry.getEntityId();
+            latest.remove(key);
+            latest.put(key, new ChangeDto(entry.getSeq(), entry.getEntityType(), entry.getEntityId(),
+                    entry.getPostId(), entry.getOperation(), entry.getPayload()));
+        }
+        return SyncResponse.builder()
+                .changes(new ArrayList<>(latest.values()))
+                .nextSince(entries.isEmpty() ? since : entries.get(entries.size() - 1).getSeq())
+                .hasMore(entries.size() == batchSize)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${sync.compaction-interval-ms}")
+    @Transactional
+    public void compact() {
+        int deleted = changeLogRepository.deleteSuperseded(Instant.now().minusMillis(settleMillis));
+        if (deleted > 0) {
+            log.info("Change log compaction removed {} superseded entries", deleted);
+        }
+    }
+
+    /*
+    * Records the current state of every post and comment which has no change log entry,
+    * in chunks of one transaction each. Returns the number of entries written.
+    * */
+
+    public long backfill() {
+        long posts = backfill(ChangeType.POST, after -> postRepository.findExportRowsAfter(after,
+                PageRequest.of(0, BACKFILL_CHUNK_SIZE)), PostExportRow::getPostId, PostExportRow::getPostId, postWriter);
+        long comments = backfill(ChangeType.COMMENT, after -> commentRepository.findExportRowsAfter(after,
+                PageRequest.of(0, BACKFILL_CHUNK_SIZE)), CommentExportRow::getId, CommentExportRow::getPostId,
+                commentWriter);
+        if (posts + comments > 0) {
+            log.info("Backfilled the change log with {} posts and {} comments", posts, comments);
+        }
+        return posts + comments;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfill();
+    }
+
+    private <T> long backfill(ChangeType type, Function<Long, List<T>> nextChunk, Function<T, Long> entityId,
+                              Function<T, Long> postId, ObjectWriter writer) {
+        AtomicLong written = new AtomicLong();
+        long after = 0;
+        while (true) {
+            long from = after;
+            List<T> rows = transactionTemplate.execute(status -> {
+                List<T> chunk = nextChunk.apply(from);
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+                Set<Long> logged = new HashSet<>(changeLogRepository.findEntityIds(type,
+                        chunk.stream().map(entityId).collect(toList())));
+                for (T row : chunk) {
+                    if (!logged.contains(entityId.apply(row))) {
+                        record(type, entityId.apply(row), postId.apply(row), ChangeOperation.UPSERT,
+                                serialize(writer, row));
+                        written.incrementAndGet();
+                    }
+                }
+                return chunk;
+            });
+            if (rows == null || rows.size() < BACKFILL_CHUNK_SIZE) {
+                return written.get();
+            }
+            after = entityId.apply(rows.get(rows.size() - 1));
+        }
+    }
+
+    private void recordPost(Long postId) {
+        postRepository.findById(postId).ifPresent(post -> record(ChangeType.POST, postId, postId,
+                ChangeOperation.UPSERT, serialize(postWriter, new PostExportRow(post.getPostId(), post.getPostName(),
+                        post.getUrl(), post.getDescription(),
+                        post.getUser() != null ? post.getUser().getUsername() : null,
+                        post.getSubreddit() != null ? post.getSubreddit().getName() : null,
+                        post.getVoteCount(), post.getCreatedDate()))));
+    }
+
+    private void recordComment(Long commentId) {
+        commentRepository.findById(commentId).ifPresent(comment -> record(ChangeType.COMMENT, commentId,
+                comment.getPost().getPostId(), ChangeOperation.UPSERT,
+                serialize(commentWriter, new CommentExportRow(comment.getId(), comment.getPost().getPostId(),
+                        comment.getUser() != null ? comment.getUser().getUsername() : null,
+                        comment.getText(), comment.getCreatedDate()))));
+    }
+
+    private void record(ChangeType type, Long entityId, Long postId, ChangeOperation operation, String payload) {
+        changeLogRepository.save(ChangeLogEntry.builder()
+                .entityType(type)
+                .entityId(entityId)
+                .postId(postId)
+                .operation(operation)
+                .payload(payload)
+                .createdDate(Instant.now())
+                .build());
+    }
+
+    private String serialize(ObjectWriter writer, Object snapshot) {
+        try {
+            return writer.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new SpringCommunityException("Exception occurred while serializing change log entry", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.event.CommentAdded;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.model.NotificationEmail;
+import com.vit.community.springapplication.repository.PostRepository;
+import com.vit.community.springapplication.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+* Sends an email notification to the creator of a post whenever another user
+* comments on it, using the MailService class. Runs after the comment has been
+* committed, outside of the request which created it.
+* */
+
+@Service
+public class CommentNotificationService implements DomainEventSubscriber {
+
+    private static final String POST_URL = "";
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final MailContentBuilder mailContentBuilder;
+    private final MailService mailService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CommentNotificationService(PostRepository postRepository, UserRepository userRepository,
+                                      MailContentBuilder mailContentBuilder, MailService mailService,
+                                      PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.mailContentBuilder = mailContentBuilder;
+        this.mailService = mailService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribe(CommentAdded.class, "comment-notification", this::sendCommentNotification);
+    }
+
+    private void sendCommentNotification(CommentAdded event) {
+        NotificationEmail notificationEmail = readOnlyTransaction.execute(status ->
+                postRepository.findById(event.getPostId())
+                        .filter(post -> post.getUser() != null)
+                        .flatMap(post -> userRepository.findById(event.getUserId())
+                                .map(commenter -> {
+                                    String message = commenter.getUsername() + " posted a comment on your post." + POST_URL;
+                                    return new NotificationEmail(commenter.getUsername() + " commented on your post",
+                                            post.getUser().getEmail(), mailContentBuilder.build(message),
+                                            mailContentBuilder.buildText(message));
+                                }))
+                        .orElse(null));
+        if (notificationEmail != null) {
+            mailService.sendMail(notificationEmail);
+        }
+    }
+}
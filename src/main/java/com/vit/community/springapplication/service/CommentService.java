@@ -1,17 +1,23 @@
 package com.vit.community.springapplication.service;
 
 import com.vit.community.springapplication.dto.CommentsDto;
+import com.vit.community.springapplication.dto.CursorPage;
+import com.vit.community.springapplication.event.CommentAdded;
+import com.vit.community.springapplication.event.CommentDeleted;
+import com.vit.community.springapplication.event.DomainEventBus;
 import com.vit.community.springapplication.exceptions.PostNotFoundException;
 import com.vit.community.springapplication.exceptions.SpringCommunityException;
 import com.vit.community.springapplication.mapper.CommentMapper;
 import com.vit.community.springapplication.model.Comment;
-import com.vit.community.springapplication.model.NotificationEmail;
+import com.vit.community.springapplication.model.CommentSort;
 import com.vit.community.springapplication.model.Post;
 import com.vit.community.springapplication.model.User;
 import com.vit.community.springapplication.repository.CommentRepository;
+import com.vit.community.springapplication.repository.CommentVoteRepository;
 import com.vit.community.springapplication.repository.PostRepository;
 import com.vit.community.springapplication.repository.UserRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,29 +29,31 @@ import static java.util.stream.Collectors.toList;
 /*
 * The CommentService class is responsible for saving and retrieving comments
 * to and from the database using the CommentRepository class.
-* Also sends an email notification to the user whenever another user
-* comments on their post using MailService class.
+* Publishes CommentAdded and CommentDeleted events, on which e.g. the
+* CommentNotificationService notifies the creator of the post.
 * */
 
 @Service
 @AllArgsConstructor
 @Transactional
 public class CommentService {
-    private static final String POST_URL = "";
+    private static final int MAX_PAGE_SIZE = 100;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final AuthService authService;
     private final CommentMapper commentMapper;
     private final CommentRepository commentRepository;
-    private final MailContentBuilder mailContentBuilder;
-    private final MailService mailService;
+    private final CommentVoteRepository commentVoteRepository;
+    private final ContentVersionService contentVersionService;
+    private final DomainEventBus domainEventBus;
+    private final UserStatsService userStatsService;
 
     /*
     * Uses the post repository to retrieve the post on which the comment is created, the authService
     * to retrieve the current logged in user, and the commentMapper to map the CommentsDto to a
     * Comment object and finally saves it into the database using the commentRepository.
     *
-    * Additionally sends a notification email to the creator of the post regarding the comment.
+    * Additionally publishes a CommentAdded event with the new comment count of the post.
     * */
 
     public void save(CommentsDto commentsDto) {
@@ -54,24 +62,22 @@ public class CommentService {
         User currentUser = authService.getCurrentUser();
         Comment comment = commentMapper.map(commentsDto, post, currentUser);
         commentRepository.save(comment);
-
-        sendCommentNotification(post.getUser(), currentUser);
+        userStatsService.commentAdded(currentUser);
+        contentVersionService.touch(post);
+        postRepository.save(post);
+        domainEventBus.publish(new CommentAdded(comment.getId(), post.getPostId(), currentUser.getUserId(),
+                (int) commentRepository.countByPost(post)));
     }
 
     public void deleteAllCommentsForPost(Post post){
+        commentVoteRepository.deleteByPost(post);
         List<Comment> comments = commentRepository.findByPost(post);
         for(Comment tempComment : comments) {
             commentRepository.delete(tempComment);
+            userStatsService.commentDeleted(tempComment.getUser());
         }
     }
 
-    /* Uses the existing MailService class to send the email. */
-
-    private void sendCommentNotification(User postCreator, User currentUser) {
-        String message = mailContentBuilder.build(currentUser.getUsername() + " posted a comment on your post." + POST_URL);
-        mailService.sendMail(new NotificationEmail(currentUser.getUsername() + " commented on your post", postCreator.getEmail(), message));
-    }
-
     /*
     * Retrieves all the comments created on a post with given postId as parameter from the database,
     * maps them to CommentsDto and sends them back to the controller as a list of CommentsDto-s.
@@ -86,22 +92,85 @@ public class CommentService {
     }
 
     /*
-     * Retrieves all the comments created by a user with given username as parameter from the database,
-     * maps them to CommentsDto and sends them back to the controller as a list of CommentsDto-s.
+    * Retrieves one page of the comments on the post in the given order and maps them to
+    * CommentsDto together with the cursor of the next page. The page starts after the comment
+    * id given as cursor, or at the first comment if it is null. Each order is read from an
+    * index, so only the comments of the page are loaded and no sorting happens, whatever the
+    * size of the thread.
+    * */
+
+    @Transactional(readOnly = true)
+    public CursorPage<CommentsDto> getCommentsForPost(Long postId, CommentSort sort, Long after, int limit) {
+        Post post = postRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId.toString()));
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        Comment cursor = null;
+        if (after != null && sort != CommentSort.NEW) {
+            cursor = commentRepository.findById(after)
+                    .filter(comment -> comment.getPost().getPostId().equals(postId))
+                    .orElseThrow(() -> new SpringCommunityException("Invalid cursor - " + after));
+        }
+        List<Comment> comments;
+        switch (sort) {
+            case BEST:
+                comments = cursor == null
+                        ? commentRepository.findByPostOrderByScoreDescIdDesc(post, page)
+                        : commentRepository.findByPostAfterScore(post, cursor.getScore(), cursor.getId(), page);
+                break;
+            case TOP:
+                comments = cursor == null
+                        ? commentRepository.findByPostOrderByVoteCountDescIdDesc(post, page)
+                        : commentRepository.findByPostAfterVoteCount(post, cursor.getVoteCount(), cursor.getId(), page);
+                break;
+            default:
+                comments = after == null
+                        ? commentRepository.findByPostOrderByIdDesc(post, page)
+                        : commentRepository.findByPostAndIdLessThanOrderByIdDesc(post, after, page);
+        }
+        Long nextCursor = comments.size() == page.getPageSize() ? comments.get(comments.size() - 1).getId() : null;
+        return new CursorPage<>(comments.stream()
+                .map(commentMapper::mapToDto)
+                .collect(toList()), nextCursor);
+    }
+
+    /*
+    * Returns the version token of the comments on the post with the given postId,
+    * without loading any comments.
+    * */
+
+    @Transactional(readOnly = true)
+    public String getCommentsForPostETag(Long postId) {
+        Post post = postRepository.findById(postId).orElseThrow(() -> new PostNotFoundException(postId.toString()));
+        return contentVersionService.commentsETag(post);
+    }
+
+    /*
+     * Retrieves one page of the comments created by a user with given username as parameter from
+     * the database, newest first, maps them to CommentsDto and sends them back to the controller
+     * together with the cursor of the next page. The page starts after the comment id given as
+     * cursor, or at the newest comment if it is null.
      * */
 
     @Transactional(readOnly = true)
-    public List<CommentsDto> getAllCommentsForUser(String userName) {
+    public CursorPage<CommentsDto> getAllCommentsForUser(String userName, Long after, int limit) {
         User user = userRepository.findByUsername(userName)
                 .orElseThrow(() -> new UsernameNotFoundException(userName));
-        return commentRepository.findAllByUser(user)
-                .stream()
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<Comment> comments = after == null
+                ? commentRepository.findAllByUserOrderByIdDesc(user, page)
+                : commentRepository.findAllByUserAndIdLessThanOrderByIdDesc(user, after, page);
+        Long nextCursor = comments.size() == page.getPageSize() ? comments.get(comments.size() - 1).getId() : null;
+        return new CursorPage<>(comments.stream()
                 .map(commentMapper::mapToDto)
-                .collect(toList());
+                .collect(toList()), nextCursor);
     }
 
     public void deleteComment(Long id) {
         Comment comment = commentRepository.findById(id).orElseThrow(() -> new SpringCommunityException(id.toString()));
+        contentVersionService.touch(comment.getPost());
+        commentVoteRepository.deleteByComment(comment);
         commentRepository.delete(comment);
+        userStatsService.commentDeleted(comment.getUser());
+        domainEventBus.publish(new CommentDeleted(comment.getId(), comment.getPost().getPostId(),
+                (int) commentRepository.countByPost(comment.getPost())));
     }
 }
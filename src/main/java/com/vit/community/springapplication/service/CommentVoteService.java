@@ -0,0 +1,103 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.CommentVoteDto;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import com.vit.community.springapplication.model.Comment;
+import com.vit.community.springapplication.model.CommentVote;
+import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.model.VoteType;
+import com.vit.community.springapplication.repository.CommentRepository;
+import com.vit.community.springapplication.repository.CommentVoteRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/*
+* The CommentVoteService saves the up and down votes of users on comments, one vote
+* per user per comment like the VoteService for posts.
+*
+* Every vote locks the comment row, stores the vote and updates the counts and the
+* Wilson score of the comment in the same transaction, so the "best" and "top" orders
+* are read straight from the comment indexes instead of being computed per request.
+* */
+
+@Service
+@AllArgsConstructor
+@Transactional
+public class CommentVoteService {
+
+//    z for a confidence of 80%, the score is the upvote ratio the comment has at least with that confidence.
+    private static final double Z = 1.281551565545;
+
+    private final CommentVoteRepository commentVoteRepository;
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final AuthService authService;
+    private final ContentVersionService contentVersionService;
+
+    /*
+    * Throws an error if the current user has already cast the same type of vote on the
+    * comment, else updates the existing vote in place or saves a new one and adjusts the
+    * counts and score of the comment. The revision of the post is bumped, as the comments
+    * of the post change.
+    * */
+
+    public void vote(CommentVoteDto commentVoteDto) {
+        Comment comment = commentRepository.findByIdForUpdate(commentVoteDto.getCommentId())
+                .orElseThrow(() -> new SpringCommunityException("Comment Not Found with ID - "
+                        + commentVoteDto.getCommentId()));
+        User currentUser = authService.getCurrentUser();
+        Optional<CommentVote> existingVote = commentVoteRepository.findByCommentAndUser(comment, currentUser);
+        int upVotes = comment.getUpVotes();
+        int downVotes = comment.getDownVotes();
+        if (existingVote.isPresent()) {
+            if (existingVote.get().getVoteType().equals(commentVoteDto.getVoteType())) {
+                throw new SpringCommunityException("You have already "
+                        + commentVoteDto.getVoteType() + "'d for this comment");
+            }
+            if (VoteType.UPVOTE.equals(existingVote.get().getVoteType())) {
+                upVotes--;
+            } else {
+                downVotes--;
+            }
+        }
+        if (VoteType.UPVOTE.equals(commentVoteDto.getVoteType())) {
+            upVotes++;
+        } else {
+            downVotes++;
+        }
+        CommentVote vote = existingVote.orElseGet(() -> CommentVote.builder()
+                .comment(comment)
+                .user(currentUser)
+                .build());
+        vote.setVoteType(commentVoteDto.getVoteType());
+        commentVoteRepository.save(vote);
+
+        comment.setUpVotes(upVotes);
+        comment.setDownVotes(downVotes);
+        comment.setVoteCount(upVotes - downVotes);
+        comment.setScore(score(upVotes, downVotes));
+        commentRepository.save(comment);
+        contentVersionService.touch(comment.getPost());
+        postRepository.save(comment.getPost());
+    }
+
+    /*
+    * Lower bound of the Wilson score confidence interval for the share of upvotes. Few votes
+    * give a wide interval and a low score, so a comment with 1 upvote does not outrank one
+    * with 90 upvotes and 10 downvotes. 0 for comments without votes.
+    * */
+
+    static double score(int upVotes, int downVotes) {
+        int n = upVotes + downVotes;
+        if (n == 0) {
+            return 0;
+        }
+        double p = (double) upVotes / n;
+        double z2 = Z * Z;
+        return (p + z2 / (2 * n) - Z * Math.sqrt((p * (1 - p) + z2 / (4 * n)) / n)) / (1 + z2 / n);
+    }
+}
@@ -0,0 +1,81 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.model.Post;
+import com.vit.community.springapplication.repository.PostRepository;
+import com.vit.community.springapplication.repository.SubredditRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+* The ContentVersionService derives cheap version tokens (ETags) for the most polled
+* read endpoints, so that controllers can answer If-None-Match with 304 Not Modified
+* before any mapping or comment loading happens.
+*
+* Posts carry a revision counter which is bumped on every edit, vote and comment. The bump
+* is an atomic update in the database, which also locks the post row until the transaction
+* ends, so concurrent changes each get their own revision.
+* Post and comment tokens also include the current minute, because the responses
+* contain relative times ("5 minutes ago") which change even if the data does not.
+* */
+
+@Service
+@AllArgsConstructor
+public class ContentVersionService {
+
+    private static final long DURATION_GRANULARITY_MILLIS = 60_000L;
+
+    private final SubredditRepository subredditRepository;
+    private final PostRepository postRepository;
+    private final AuthService authService;
+
+//    Bumps the revision of a post. Must be called whenever the post, its votes or its comments change.
+
+    @Transactional
+    public void touch(Post post) {
+        postRepository.incrementRevision(post.getPostId());
+        post.setRevision(postRepository.findRevision(post.getPostId()));
+    }
+
+    /*
+    * The post response contains the upVote/downVote flags of the current user,
+    * so the token is specific to the user as well.
+    * */
+
+    public String postETag(Post post) {
+        return "\"post-" + post.getPostId() + "-" + revisionOf(post) + "-" + currentMinute()
+                + "-" + currentUserTag() + "\"";
+    }
+
+    public String commentsETag(Post post) {
+        return "\"comments-" + post.getPostId() + "-" + revisionOf(post) + "-" + currentMinute() + "\"";
+    }
+
+    /*
+    * Subreddits are only ever created, so the row count and highest id identify the list.
+    * Each subreddit also carries its number of posts, which changes whenever a post is created
+    * or deleted, so the post count and highest post id are part of the token as well.
+    * */
+
+    @Transactional(readOnly = true)
+    public String subredditsETag() {
+        return "\"subreddits-" + subredditRepository.count() + "-" + subredditRepository.findMaxId()
+                + "-" + postRepository.count() + "-" + postRepository.findMaxId() + "\"";
+    }
+
+    private long revisionOf(Post post) {
+        return post.getRevision() == null ? 0L : post.getRevision();
+    }
+
+    private long currentMinute() {
+        return System.currentTimeMillis() / DURATION_GRANULARITY_MILLIS;
+    }
+
+    private String currentUserTag() {
+        if (!authService.isLoggedIn()) {
+            return "anonymous";
+        }
+        return Integer.toHexString(SecurityContextHolder.getContext().getAuthentication().getName().hashCode());
+    }
+}
@@ -0,0 +1,165 @@
+package com.vit.community.springapplication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.vit.community.springapplication.dto.CommentExportRow;
+import com.vit.community.springapplication.dto.PostExportRow;
+import com.vit.community.springapplication.dto.VoteExportRow;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import com.vit.community.springapplication.repository.CommentRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import com.vit.community.springapplication.repository.VoteRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*
+* The ExportService writes full dumps of the post, comment and vote tables as
+* NDJSON (one JSON object per line) or CSV.
+*
+* Rows are streamed from the database with a MySQL streaming cursor and written
+* straight to the given output stream, so memory use does not depend on the table size.
+* The rows are read as DTO projections, so no entities pile up in the persistence context.
+* */
+
+@Service
+@AllArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final VoteRepository voteRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format lookup(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new SpringCommunityException("Unsupported export format - " + name);
+            }
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    public long exportPosts(Format format, OutputStream outputStream) throws IOException {
+        try (Stream<PostExportRow> rows = postRepository.streamAllForExport()) {
+            return export("post", rows, PostExportRow.class, format, outputStream,
+                    new String[]{"postId", "postName", "url", "description", "userName", "subredditName",
+                            "voteCount", "createdDate"},
+                    row -> new Object[]{row.getPostId(), row.getPostName(), row.getUrl(), row.getDescription(),
+                            row.getUserName(), row.getSubredditName(), row.getVoteCount(), row.getCreatedDate()});
+        }
+    }
+
+    public long exportComments(Format format, OutputStream outputStream) throws IOException {
+        try (Stream<CommentExportRow> rows = commentRepository.streamAllForExport()) {
+            return export("comment", rows, CommentExportRow.class, format, outputStream,
+                    new String[]{"id", "postId", "userName", "text", "createdDate"},
+                    row -> new Object[]{row.getId(), row.getPostId(), row.getUserName(), row.getText(),
+                            row.getCreatedDate()});
+        }
+    }
+
+    public long exportVotes(Format format, OutputStream outputStream) throws IOException {
+        try (Stream<VoteExportRow> rows = voteRepository.streamAllForExport()) {
+            return export("vote", rows, VoteExportRow.class, format, outputStream,
+                    new String[]{"voteId", "postId", "userName", "voteType"},
+                    row -> new Object[]{row.getVoteId(), row.getPostId(), row.getUserName(), row.getVoteType()});
+        }
+    }
+
+    private <T> long export(String table, Stream<T> rows, Class<T> rowType, Format format, OutputStream outputStream,
+                            String[] header, Function<T, Object[]> csvValues) throws IOException {
+        long start = System.nanoTime();
+        OutputStream out = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        long count = format == Format.NDJSON
+                ? writeNdjson(rows.iterator(), rowType, out)
+                : writeCsv(rows.iterator(), out, header, csvValues);
+        out.flush();
+        double seconds = Math.max((System.nanoTime() - start) / 1e9, 0.001);
+        log.info("Exported {} {} rows as {} in {} ms ({} rows/s)", count, table, format,
+                Math.round(seconds * 1000), Math.round(count / seconds));
+        return count;
+    }
+
+    private <T> long writeNdjson(Iterator<T> rows, Class<T> rowType, OutputStream out) throws IOException {
+        long count = 0;
+        SequenceWriter writer = objectMapper.writerFor(rowType)
+                .withRootValueSeparator("\n")
+                .writeValues(out);
+        while (rows.hasNext()) {
+            writer.write(rows.next());
+            count++;
+        }
+        writer.flush();
+        out.write('\n');
+        return count;
+    }
+
+    private <T> long writeCsv(Iterator<T> rows, OutputStream out, String[] header,
+                              Function<T, Object[]> csvValues) throws IOException {
+        long count = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writeCsvLine(writer, header);
+        while (rows.hasNext()) {
+            writeCsvLine(writer, csvValues.apply(rows.next()));
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,327 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.CursorPage;
+import com.vit.community.springapplication.dto.HomeFeedStats;
+import com.vit.community.springapplication.dto.PostResponse;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.event.PostCreated;
+import com.vit.community.springapplication.event.PostDeleted;
+import com.vit.community.springapplication.repository.PostFeedItem;
+import com.vit.community.springapplication.repository.PostFeedViewRepository;
+import com.vit.community.springapplication.repository.SubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+
+/*
+* The HomeFeedService serves the home feed of a user: the newest posts of the subreddits
+* the user is subscribed to.
+*
+* Reads are served from precomputed per-user timelines of post ids, kept in memory for the
+* most recently active users and built from the post_feed_view table on their first read.
+* New posts are pushed into the timelines of the subscribers of their subreddit (fan-out on
+* write) after commit. Subreddits with at least fan-out-threshold subscribers are not pushed,
+* one post there would cost that many timeline inserts; their newest posts are instead merged
+* into the timeline page when it is read (fan-out on read). Pages past the end of a truncated
+* timeline are read from the post_feed_view table directly.
+*
+* A timeline is built outside any lock, so a post fanned out while it is being built can miss
+* it. Every fan-out is therefore numbered and kept in a short log, and the posts fanned out
+* since the build started are replayed into the timeline when it is published.
+* */
+
+@Service
+@Slf4j
+public class HomeFeedService implements DomainEventSubscriber {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_RECENT_FAN_OUTS = 10_000;
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final PostFeedViewRepository postFeedViewRepository;
+    private final PostFeedService postFeedService;
+    private final AuthService authService;
+    private final Map<Long, HomeTimeline> timelines;
+    private final Set<Long> largeSubreddits = ConcurrentHashMap.newKeySet();
+    private final int timelineSize;
+    private final long fanOutThreshold;
+//    Guarded by itself, together with fanOutSequence.
+    private final Deque<FanOut> recentFanOuts = new ArrayDeque<>();
+    private long fanOutSequence;
+
+    private final AtomicLong fanOutPosts = new AtomicLong();
+    private final AtomicLong fanOutWrites = new AtomicLong();
+    private final AtomicLong mergeOnReadPosts = new AtomicLong();
+    private final AtomicLong timelineBuilds = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong mergedReads = new AtomicLong();
+    private final AtomicLong databaseReads = new AtomicLong();
+    private final AtomicLong readNanos = new AtomicLong();
+
+    public HomeFeedService(SubscriptionRepository subscriptionRepository, PostFeedViewRepository postFeedViewRepository,
+                           PostFeedService postFeedService, AuthService authService,
+                           @Value("${feed.home.timeline-size}") int timelineSize,
+                           @Value("${feed.home.max-timelines}") int maxTimelines,
+                           @Value("${feed.home.fan-out-threshold}") long fanOutThreshold) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.postFeedViewRepository = postFeedViewRepository;
+        this.postFeedService = postFeedService;
+        this.authService = authService;
+        this.timelineSize = timelineSize;
+        this.fanOutThreshold = fanOutThreshold;
+//        Least recently read timelines are dropped first and rebuilt on their next read.
+        this.timelines = Collections.synchronizedMap(new LinkedHashMap<Long, HomeTimeline>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, HomeTimeline> eldest) {
+                return size() > maxTimelines;
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribe(PostCreated.class, "home-feed", this::fanOut);
+        eventBus.subscribe(PostDeleted.class, "home-feed", event -> removeFromTimelines(event.getPostId()));
+    }
+
+    /*
+    * Returns one page of the home feed of the current user, newest first, starting after the
+    * post id given as cursor or at the newest post if it is null, together with the cursor of
+    * the next page.
+    * */
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getHomeFeed(Long after, int limit) {
+        long start = System.nanoTime();
+//        Taken before the first query, which fixes the snapshot the transaction reads from.
+        long buildSequence = currentFanOutSequence();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        HomeTimeline timeline = getTimeline(authService.getCurrentUser().getUserId(), buildSequence);
+
+        List<PostFeedItem> items;
+        Long nextCursor;
+        List<Long> timelinePage = timeline.page(after, pageSize);
+        if (timelinePage.size() < pageSize && timeline.isTruncated()) {
+            databaseReads.incrementAndGet();
+            items = readSubreddits(timeline.getSubredditIds(), after, pageSize);
+            nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getPostId() : null;
+        } else {
+            Set<Long> large = timeline.getSubredditIds().stream()
+                    .filter(largeSubreddits::contains)
+                    .collect(toSet());
+            List<PostFeedItem> candidates = new ArrayList<>(timelinePage.isEmpty()
+                    ? Collections.emptyList()
+                    : postFeedViewRepository.findByPostIdIn(timelinePage));
+            List<Long> largePage = Collections.emptyList();
+            if (!large.isEmpty()) {
+                mergedReads.incrementAndGet();
+                List<PostFeedItem> largeItems = readSubreddits(large, after, pageSize);
+                largePage = largeItems.stream().map(PostFeedItem::getPostId).collect(toList());
+                candidates.addAll(largeItems);
+            }
+            Map<Long, PostFeedItem> byId = candidates.stream()
+                    .collect(toMap(PostFeedItem::getPostId, Function.identity(), (first, second) -> first));
+            List<Long> merged = HomeTimeline.mergeNewest(Arrays.asList(timelinePage, largePage), pageSize);
+//            Deleted posts are missing from byId and are skipped, the cursor still moves past them.
+            items = merged.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .collect(toList());
+            nextCursor = merged.size() == pageSize ? merged.get(merged.size() - 1) : null;
+        }
+        List<PostResponse> page = postFeedService.toResponses(items).collect(toList());
+        reads.incrementAndGet();
+        readNanos.addAndGet(System.nanoTime() - start);
+        return new CursorPage<>(page, nextCursor);
+    }
+
+    /*
+    * Drops the timeline of the user once the current transaction has committed, so that it is
+    * rebuilt from the changed subscriptions on the next read.
+    * */
+
+    public void invalidate(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    timelines.remove(userId);
+                }
+            });
+        } else {
+            timelines.remove(userId);
+        }
+    }
+
+//    Drops all timelines, e.g. after posts were written around the event bus.
+    public void clear() {
+        timelines.clear();
+    }
+
+    public HomeFeedStats getStats() {
+        long readCount = reads.get();
+        return HomeFeedStats.builder()
+                .timelines(timelines.size())
+                .largeSubreddits(largeSubreddits.size())
+                .fanOutPosts(fanOutPosts.get())
+                .fanOutWrites(fanOutWrites.get())
+                .mergeOnReadPosts(mergeOnReadPosts.get())
+                .timelineBuilds(timelineBuilds.get())
+                .reads(readCount)
+                .mergedReads(mergedReads.get())
+                .databaseReads(databaseReads.get())
+                .averageReadMillis(readCount == 0 ? 0
+                        : (double) readNanos.get() / readCount / TimeUnit.MILLISECONDS.toNanos(1))
+                .build();
+    }
+
+    /*
+    * Returns the timeline of the user, building it if it is not in memory. Posts fanned out after
+    * buildSequence may be missing from the query results, they are added from the fan-out log when
+    * the timeline is published. If the log no longer reaches back that far, the timeline is used
+    * for this read only and built again on the next one.
+    * */
+
+    private HomeTimeline getTimeline(Long userId, long buildSequence) {
+        HomeTimeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            return timeline;
+        }
+        Set<Long> subredditIds = Collections.unmodifiableSet(
+                new HashSet<>(subscriptionRepository.findSubredditIdsByUserId(userId)));
+        Set<Long> pushed = subredditIds.stream()
+                .filter(subredditId -> !largeSubreddits.contains(subredditId))
+                .collect(toSet());
+        List<Long> newest = pushed.isEmpty()
+                ? Collections.emptyList()
+                : postFeedViewRepository.findPostIdsBySubredditIds(pushed, PageRequest.of(0, timelineSize));
+        timelineBuilds.incrementAndGet();
+        HomeTimeline built = new HomeTimeline(subredditIds, newest, timelineSize);
+        HomeTimeline published;
+        List<FanOut> missed;
+        synchronized (timelines) {
+//            Fan-outs numbered after this point look the timeline up after it has been stored.
+            missed = fanOutsAfter(buildSequence);
+            if (missed == null) {
+                log.debug("Fan-out log overflowed while the timeline of user {} was built, not keeping it", userId);
+                return built;
+            }
+//            Two concurrent first reads build the same timeline, the first one stored is kept.
+            published = timelines.computeIfAbsent(userId, id -> built);
+        }
+        for (FanOut fanOut : missed) {
+            if (published.getSubredditIds().contains(fanOut.subredditId)) {
+                published.add(fanOut.postId);
+            }
+        }
+        return published;
+    }
+
+    private long currentFanOutSequence() {
+        synchronized (recentFanOuts) {
+            return fanOutSequence;
+        }
+    }
+
+//    The fan-outs numbered after the given sequence, or null if some of them are no longer logged.
+    private List<FanOut> fanOutsAfter(long sequence) {
+        synchronized (recentFanOuts) {
+            if (fanOutSequence - sequence > recentFanOuts.size()) {
+                return null;
+            }
+            List<FanOut> after = new ArrayList<>();
+            Iterator<FanOut> newestFirst = recentFanOuts.descendingIterator();
+            while (newestFirst.hasNext()) {
+                FanOut fanOut = newestFirst.next();
+                if (fanOut.sequence <= sequence) {
+                    break;
+                }
+                after.add(fanOut);
+            }
+            return after;
+        }
+    }
+
+    private void logFanOut(Long subredditId, Long postId) {
+        synchronized (recentFanOuts) {
+            recentFanOuts.addLast(new FanOut(++fanOutSequence, subredditId, postId));
+            if (recentFanOuts.size() > MAX_RECENT_FAN_OUTS) {
+                recentFanOuts.removeFirst();
+            }
+        }
+    }
+
+    private List<PostFeedItem> readSubreddits(Set<Long> subredditIds, Long after, int pageSize) {
+        if (subredditIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        PageRequest page = PageRequest.of(0, pageSize);
+        return after == null
+                ? postFeedViewRepository.findBySubredditIdInOrderByPostIdDesc(subredditIds, page)
+                : postFeedViewRepository.findBySubredditIdInAndPostIdLessThanOrderByPostIdDesc(subredditIds, after, page);
+    }
+
+//    Runs on an event bus lane after the post has been committed.
+    private void fanOut(PostCreated event) {
+        Long subredditId = event.getSubredditId();
+        if (largeSubreddits.contains(subredditId)) {
+            mergeOnReadPosts.incrementAndGet();
+            return;
+        }
+        if (subscriptionRepository.countBySubredditId(subredditId) >= fanOutThreshold) {
+            log.info("Subreddit {} reached {} subscribers, its posts are merged on read from now on",
+                    subredditId, fanOutThreshold);
+            largeSubreddits.add(subredditId);
+            mergeOnReadPosts.incrementAndGet();
+            return;
+        }
+//        Logged before the timelines are looked up, so a timeline published meanwhile replays the post.
+        logFanOut(subredditId, event.getPostId());
+        int writes = 0;
+        for (Long userId : subscriptionRepository.findUserIdsBySubredditId(subredditId)) {
+//            Only timelines held in memory are updated, the others are built with the post included.
+            HomeTimeline timeline = timelines.get(userId);
+            if (timeline != null) {
+                timeline.add(event.getPostId());
+                writes++;
+            }
+        }
+        fanOutPosts.incrementAndGet();
+        fanOutWrites.addAndGet(writes);
+    }
+
+    private void removeFromTimelines(Long postId) {
+        List<HomeTimeline> all;
+        synchronized (timelines) {
+            all = new ArrayList<>(timelines.values());
+        }
+        all.forEach(timeline -> timeline.remove(postId));
+    }
+
+    private static class FanOut {
+        private final long sequence;
+        private final Long subredditId;
+        private final Long postId;
+
+        FanOut(long sequence, Long subredditId, Long postId) {
+            this.sequence = sequence;
+            this.subredditId = subredditId;
+            this.postId = postId;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.vit.community.springapplication.service;
+
+import java.util.*;
+
+/*
+* The precomputed home timeline of one user: the ids of the newest posts of the subscribed
+* subreddits, newest first, bounded to a capacity. Posts of large subreddits are not pushed
+* into timelines, they are merged in when the timeline is read.
+* */
+
+class HomeTimeline {
+
+    private final TreeSet<Long> postIds = new TreeSet<>(Comparator.reverseOrder());
+    private final Set<Long> subredditIds;
+    private final int capacity;
+//    Set once posts have been dropped from the tail, pages past the tail must then be read from the database.
+    private boolean truncated;
+
+    HomeTimeline(Set<Long> subredditIds, List<Long> newestPostIds, int capacity) {
+        this.subredditIds = subredditIds;
+        this.capacity = capacity;
+        this.postIds.addAll(newestPostIds);
+        this.truncated = newestPostIds.size() >= capacity;
+        trim();
+    }
+
+    Set<Long> getSubredditIds() {
+        return subredditIds;
+    }
+
+    synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    synchronized void add(Long postId) {
+        postIds.add(postId);
+        trim();
+    }
+
+    synchronized void remove(Long postId) {
+        postIds.remove(postId);
+    }
+
+//    The post ids older than the cursor, newest first, at most pageSize of them.
+    synchronized List<Long> page(Long after, int pageSize) {
+        NavigableSet<Long> older = after == null ? postIds : postIds.tailSet(after, false);
+        List<Long> page = new ArrayList<>(Math.min(pageSize, older.size()));
+        for (Long postId : older) {
+            if (page.size() == pageSize) {
+                break;
+            }
+            page.add(postId);
+        }
+        return page;
+    }
+
+    private void trim() {
+        while (postIds.size() > capacity) {
+            postIds.pollLast();
+            truncated = true;
+        }
+    }
+
+    /*
+    * Merges lists of post ids which are each sorted newest first into one page of at most
+    * pageSize distinct ids, newest first.
+    * */
+
+    static List<Long> mergeNewest(List<List<Long>> sources, int pageSize) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (first, second) -> Long.compare(second.postId, first.postId));
+        for (List<Long> source : sources) {
+            Iterator<Long> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<Long> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (page.isEmpty() || page.get(page.size() - 1) != head.postId) {
+                page.add(head.postId);
+            }
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.rest));
+            }
+        }
+        return page;
+    }
+
+    private static class Head {
+        private final long postId;
+        private final Iterator<Long> rest;
+
+        Head(long postId, Iterator<Long> rest) {
+            this.postId = postId;
+            this.rest = rest;
+        }
+    }
+}
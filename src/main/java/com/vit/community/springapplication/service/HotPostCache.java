@@ -0,0 +1,113 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.event.CommentAdded;
+import com.vit.community.springapplication.event.CommentDeleted;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.event.PostDeleted;
+import com.vit.community.springapplication.event.PostUpdated;
+import com.vit.community.springapplication.event.VoteCast;
+import com.vit.community.springapplication.repository.PostFeedItem;
+import com.vit.community.springapplication.repository.PostFeedViewRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* The HotPostCache pins the feed rows of the current hot posts in memory, so that reads
+* of single hot posts need no post and comment count queries.
+*
+* When the hot posts change the new ones are loaded at once (prewarmed) and the others
+* dropped. An entry is evicted when its post changes or its view count is flushed, and
+* reloaded on its next read.
+* Changes are evicted on the writing thread right after the commit, not later on an event
+* lane, as the post ETag is read from the committed revision and must not be paired with
+* the old pinned row. A load which overlaps an eviction is not cached, as it may have read
+* the old row.
+* */
+
+@Service
+public class HotPostCache implements HotPostsListener, DomainEventSubscriber {
+
+    private final PostFeedViewRepository postFeedViewRepository;
+    private final Map<Long, PostFeedItem> pinned = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile Set<Long> hotPostIds = Collections.emptySet();
+
+    public HotPostCache(PostFeedViewRepository postFeedViewRepository) {
+        this.postFeedViewRepository = postFeedViewRepository;
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribeInTransaction(VoteCast.class, "hot-post-cache", event -> evictAfterCommit(event.getPostId()));
+        eventBus.subscribeInTransaction(CommentAdded.class, "hot-post-cache", event -> evictAfterCommit(event.getPostId()));
+        eventBus.subscribeInTransaction(CommentDeleted.class, "hot-post-cache", event -> evictAfterCommit(event.getPostId()));
+        eventBus.subscribeInTransaction(PostUpdated.class, "hot-post-cache", event -> evictAfterCommit(event.getPostId()));
+        eventBus.subscribeInTransaction(PostDeleted.class, "hot-post-cache", event -> evictAfterCommit(event.getPostId()));
+    }
+
+    @Override
+    public void hotPostsChanged(List<Long> currentHotPostIds) {
+        Set<Long> hot = new HashSet<>(currentHotPostIds);
+        hotPostIds = hot;
+        pinned.keySet().retainAll(hot);
+        List<Long> missing = new ArrayList<>();
+        for (Long postId : hot) {
+            if (!pinned.containsKey(postId)) {
+                missing.add(postId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long evictionsBefore = evictions.get();
+            List<PostFeedItem> items = postFeedViewRepository.findByPostIdIn(missing);
+            if (evictions.get() == evictionsBefore) {
+                items.forEach(item -> pinned.put(item.getPostId(), item));
+            }
+        }
+    }
+
+    /* Returns the feed row of the post if it is hot, loading it if it is not pinned yet. */
+
+    public Optional<PostFeedItem> get(Long postId) {
+        if (!hotPostIds.contains(postId)) {
+            return Optional.empty();
+        }
+        PostFeedItem item = pinned.get(postId);
+        if (item != null) {
+            return Optional.of(item);
+        }
+        long evictionsBefore = evictions.get();
+        Optional<PostFeedItem> loaded = postFeedViewRepository.findByPostId(postId);
+        if (loaded.isPresent() && evictions.get() == evictionsBefore && hotPostIds.contains(postId)) {
+            pinned.put(postId, loaded.get());
+        }
+        return loaded;
+    }
+
+    public int size() {
+        return pinned.size();
+    }
+
+    public void evict(Long postId) {
+        evictions.incrementAndGet();
+        pinned.remove(postId);
+    }
+
+    private void evictAfterCommit(Long postId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    evict(postId);
+                }
+            });
+        } else {
+            evict(postId);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.vit.community.springapplication.service;
+
+import java.util.List;
+
+/*
+* Implemented by beans which want to know the current hot posts, e.g. caches which pin
+* and prewarm them. Called by the TrendingService whenever the top posts change.
+* */
+
+public interface HotPostsListener {
+    void hotPostsChanged(List<Long> hotPostIds);
+}
@@ -0,0 +1,54 @@
+package com.vit.community.springapplication.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* Writes high-volume list responses as a JSON array directly to the response stream,
+* one element at a time, instead of collecting the DTOs in a list for the message converter.
+*
+* Each DTO type has a single ObjectWriter, created once from the application ObjectMapper,
+* so the serializer lookup happens once per type rather than once per response. The writers
+* do not flush after each element, leaving buffering to the generator and the servlet container.
+* */
+
+@Component
+public class JsonArrayWriter {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public JsonArrayWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, key -> objectMapper.writerFor(key)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+    }
+
+    public <T> int writeArray(OutputStream outputStream, Class<T> type, Iterator<? extends T> items) throws IOException {
+        ObjectWriter writer = writerFor(type);
+        int count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            while (items.hasNext()) {
+                writer.writeValue(generator, items.next());
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,370 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.LinkPreviewDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static java.util.regex.Pattern.DOTALL;
+
+/*
+* Fetches a web page and extracts its preview: the Open Graph (or Twitter card) title,
+* description, image and site name, falling back to the <title> and description meta tags.
+*
+* Every fetch is bounded: connect and read timeouts, a total deadline over all redirects,
+* a cap on the bytes read (reading stops at the end of <head>) and a limit on redirects.
+* Only http and https urls of public hosts are fetched, also after redirects, so that posts
+* cannot make the server probe internal addresses. The host is resolved once per hop and the
+* request is sent over a socket to the checked address, with a plain HTTP/1.0 GET.
+* */
+
+@Component
+@Slf4j
+public class LinkPreviewFetcher {
+
+    private static final Pattern META_TAG = Pattern.compile("<meta\\s([^>]*)>", CASE_INSENSITIVE);
+    private static final Pattern ATTRIBUTE = Pattern.compile("([a-zA-Z_:-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+    private static final Pattern TITLE_TAG = Pattern.compile("<title[^>]*>(.*?)</title>", CASE_INSENSITIVE | DOTALL);
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([\\w.:-]+)", CASE_INSENSITIVE);
+    private static final byte[] HEAD_END = "</head".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_TITLE_LENGTH = 300;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int MAX_HEADERS = 100;
+    private static final int MAX_HEADER_LINE_LENGTH = 8192;
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long totalTimeoutMillis;
+    private final int maxBytes;
+    private final int maxRedirects;
+    private final boolean allowPrivateHosts;
+
+    public LinkPreviewFetcher(@Value("${link-preview.connect-timeout-ms}") int connectTimeoutMillis,
+                              @Value("${link-preview.read-timeout-ms}") int readTimeoutMillis,
+                              @Value("${link-preview.total-timeout-ms}") long totalTimeoutMillis,
+                              @Value("${link-preview.max-bytes}") int maxBytes,
+                              @Value("${link-preview.max-redirects}") int maxRedirects,
+                              @Value("${link-preview.allow-private-hosts}") boolean allowPrivateHosts) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.totalTimeoutMillis = totalTimeoutMillis;
+        this.maxBytes = maxBytes;
+        this.maxRedirects = maxRedirects;
+        this.allowPrivateHosts = allowPrivateHosts;
+    }
+
+    /*
+    * Returns the preview of the page at the given url, or empty if the url is not allowed,
+    * does not answer with an HTML page, or redirects too often.
+    * */
+
+    public Optional<LinkPreviewDto> fetch(String url) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMillis);
+        URL current = new URL(url);
+        for (int redirects = 0; ; redirects++) {
+            InetAddress address = resolveAllowed(current);
+            if (address == null) {
+                log.debug("Not fetching the preview of {}, the host is not public", current);
+                return Optional.empty();
+            }
+            try (Socket socket = connect(current, address, deadline)) {
+                InputStream inputStream = new BufferedInputStream(new DeadlineInputStream(socket, deadline));
+                sendRequest(socket.getOutputStream(), current);
+                int status = readStatus(inputStream);
+                Map<String, String> headers = readHeaders(inputStream);
+                String location = headers.get("location");
+                if (status >= 300 && status < 400 && location != null) {
+                    if (redirects >= maxRedirects) {
+                        return Optional.empty();
+                    }
+                    current = new URL(current, location);
+                    continue;
+                }
+                String contentType = headers.get("content-type");
+                if (status != HttpURLConnection.HTTP_OK || contentType == null
+                        || !contentType.toLowerCase(Locale.ROOT).startsWith("text/html")) {
+                    return Optional.empty();
+                }
+                String head = new String(readHead(inputStream), charsetOf(contentType));
+                return Optional.of(parse(head, current));
+            }
+        }
+    }
+
+    static LinkPreviewDto parse(String html, URL pageUrl) {
+        Map<String, String> meta = new HashMap<>();
+        Matcher tags = META_TAG.matcher(html);
+        while (tags.find()) {
+            Map<String, String> attributes = new HashMap<>();
+            Matcher attribute = ATTRIBUTE.matcher(tags.group(1));
+            while (attribute.find()) {
+                attributes.put(attribute.group(1).toLowerCase(Locale.ROOT),
+                        attribute.group(2) != null ? attribute.group(2) : attribute.group(3));
+            }
+            String key = attributes.containsKey("property") ? attributes.get("property") : attributes.get("name");
+            if (key != null && attributes.containsKey("content")) {
+                meta.putIfAbsent(key.toLowerCase(Locale.ROOT), decodeEntities(attributes.get("content")).trim());
+            }
+        }
+        Matcher title = TITLE_TAG.matcher(html);
+        String pageTitle = title.find() ? decodeEntities(title.group(1)).trim() : null;
+
+        return LinkPreviewDto.builder()
+                .url(pageUrl.toString())
+                .title(truncate(first(meta.get("og:title"), meta.get("twitter:title"), pageTitle), MAX_TITLE_LENGTH))
+                .description(truncate(first(meta.get("og:description"), meta.get("description"),
+                        meta.get("twitter:description")), MAX_DESCRIPTION_LENGTH))
+                .imageUrl(resolveImage(first(meta.get("og:image"), meta.get("twitter:image")), pageUrl))
+                .siteName(truncate(first(meta.get("og:site_name"), pageUrl.getHost()), 255))
+                .build();
+    }
+
+    /*
+    * Resolves the host of the url once and returns the address to connect to, or null if the
+    * url is not http(s) or the host has a non-public address. The connection is made to this
+    * very address, so a DNS server cannot answer the check with a public address and the
+    * connection with an internal one (DNS rebinding).
+    * */
+
+    private InetAddress resolveAllowed(URL url) throws UnknownHostException {
+        String protocol = url.getProtocol();
+        if (!"http".equals(protocol) && !"https".equals(protocol)) {
+            return null;
+        }
+        InetAddress[] addresses = InetAddress.getAllByName(url.getHost());
+        if (!allowPrivateHosts) {
+            for (InetAddress address : addresses) {
+                if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isLinkLocalAddress()
+                        || address.isSiteLocalAddress() || address.isMulticastAddress()
+                        || (address instanceof Inet6Address && (address.getAddress()[0] & 0xFE) == 0xFC)) {
+                    return null;
+                }
+            }
+        }
+        return addresses[0];
+    }
+
+//    Connects to the resolved address. For https the TLS session still uses the host name for SNI and certificate checks.
+    private Socket connect(URL url, InetAddress address, long deadline) throws IOException {
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(address, port), Math.min(connectTimeoutMillis, remainingMillis(deadline)));
+            if (!"https".equals(url.getProtocol())) {
+                return socket;
+            }
+            SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                    .createSocket(socket, url.getHost(), port, true);
+            SSLParameters parameters = sslSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(parameters);
+            sslSocket.setSoTimeout(Math.min(readTimeoutMillis, remainingMillis(deadline)));
+            sslSocket.startHandshake();
+            return sslSocket;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+//    HTTP/1.0, so that the body is neither chunked nor compressed and ends when the server closes the connection.
+    private static void sendRequest(OutputStream outputStream, URL url) throws IOException {
+        String target = url.getFile().isEmpty() ? "/" : url.getFile();
+        String host = url.getPort() == -1 || url.getPort() == url.getDefaultPort()
+                ? url.getHost() : url.getHost() + ":" + url.getPort();
+        outputStream.write(("GET " + target + " HTTP/1.0\r\n"
+                + "Host: " + host + "\r\n"
+                + "Accept: text/html\r\n"
+                + "User-Agent: SpringCommunity-LinkPreview/1.0\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        outputStream.flush();
+    }
+
+    private static int readStatus(InputStream inputStream) throws IOException {
+        String statusLine = readLine(inputStream);
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+    }
+
+//    Header names in lower case, the first value of each header.
+    private static Map<String, String> readHeaders(InputStream inputStream) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        for (int count = 0; count < MAX_HEADERS; count++) {
+            String line = readLine(inputStream);
+            if (line.isEmpty()) {
+                return headers;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.putIfAbsent(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        line.substring(colon + 1).trim());
+            }
+        }
+        throw new IOException("Too many HTTP response headers");
+    }
+
+    private static String readLine(InputStream inputStream) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = inputStream.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("Connection closed in the HTTP response header");
+            }
+            if (line.length() >= MAX_HEADER_LINE_LENGTH) {
+                throw new IOException("HTTP response header line too long");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private int remainingMillis(long deadline) throws SocketTimeoutException {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) {
+            throw new SocketTimeoutException("Link preview fetch took longer than " + totalTimeoutMillis + " ms");
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+//    Reads until the end of <head>, maxBytes or the end of the response, whichever comes first.
+    private byte[] readHead(InputStream inputStream) throws IOException {
+        HeadBuffer head = new HeadBuffer(Math.min(maxBytes, 16 * 1024));
+        byte[] chunk = new byte[8192];
+        int read;
+        while (head.size() < maxBytes
+                && (read = inputStream.read(chunk, 0, Math.min(chunk.length, maxBytes - head.size()))) != -1) {
+            int searchFrom = Math.max(0, head.size() - HEAD_END.length);
+            head.write(chunk, 0, read);
+            if (head.containsIgnoreCase(HEAD_END, searchFrom)) {
+                break;
+            }
+        }
+        return head.toByteArray();
+    }
+
+    private static Charset charsetOf(String contentType) {
+        Matcher charset = CHARSET.matcher(contentType);
+        if (charset.find()) {
+            try {
+                return Charset.forName(charset.group(1));
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static String resolveImage(String image, URL pageUrl) {
+        if (image == null) {
+            return null;
+        }
+        try {
+            URL imageUrl = new URL(pageUrl, image);
+            String protocol = imageUrl.getProtocol();
+            String resolved = imageUrl.toString();
+            return ("http".equals(protocol) || "https".equals(protocol)) && resolved.length() <= MAX_URL_LENGTH
+                    ? resolved : null;
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    private static String first(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static String decodeEntities(String text) {
+        return text.replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&#x27;", "'")
+                .replace("&apos;", "'")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&nbsp;", " ")
+                .replace("&amp;", "&");
+    }
+
+    /*
+    * Bounds every read by the read timeout and by the time left until the deadline of the
+    * whole fetch, redirects included, so a slow server cannot stretch a fetch by sending
+    * a byte just before each read timeout.
+    * */
+
+    private class DeadlineInputStream extends FilterInputStream {
+        private final Socket socket;
+        private final long deadline;
+
+        DeadlineInputStream(Socket socket, long deadline) throws IOException {
+            super(socket.getInputStream());
+            this.socket = socket;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            socket.setSoTimeout(Math.min(readTimeoutMillis, remainingMillis(deadline)));
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            socket.setSoTimeout(Math.min(readTimeoutMillis, remainingMillis(deadline)));
+            return super.read(b, off, len);
+        }
+    }
+
+    private static class HeadBuffer extends ByteArrayOutputStream {
+
+        HeadBuffer(int size) {
+            super(size);
+        }
+
+        boolean containsIgnoreCase(byte[] lowerCasePattern, int from) {
+            outer:
+            for (int i = from; i <= count - lowerCasePattern.length; i++) {
+                for (int j = 0; j < lowerCasePattern.length; j++) {
+                    if (Character.toLowerCase((char) buf[i + j]) != lowerCasePattern[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.LinkPreviewDto;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.event.PostCreated;
+import com.vit.community.springapplication.model.LinkPreview;
+import com.vit.community.springapplication.model.Post;
+import com.vit.community.springapplication.repository.LinkPreviewRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* The LinkPreviewService fetches and stores the previews of the urls of new posts,
+* and adds them to the PostResponses.
+*
+* Fetches are queued once the post has been committed and run on a small pool with
+* a bounded queue; when it is full, previews are skipped. At most per-host-concurrency
+* fetches run against the same host at a time. A url is fetched once and its preview
+* shared by all posts linking to it, until it is older than refresh-after.
+*
+* Previews are read in batches for the feed pages, through an LRU cache whose entries
+* expire after cache-ttl, so repeated urls and pages do not go to the database.
+* */
+
+@Service
+@Slf4j
+public class LinkPreviewService implements DomainEventSubscriber {
+
+    private static final int HOST_STRIPES = 256;
+
+    private final LinkPreviewRepository linkPreviewRepository;
+    private final PostRepository postRepository;
+    private final LinkPreviewFetcher linkPreviewFetcher;
+    private final ThreadPoolExecutor executor;
+//    Hosts are mapped onto a fixed number of semaphores, which bounds the memory for any number of hosts.
+    private final Semaphore[] hostPermits = new Semaphore[HOST_STRIPES];
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, CachedPreview> cache;
+    private final long hostWaitMillis;
+    private final long cacheTtlMillis;
+    private final Duration refreshAfter;
+
+    public LinkPreviewService(LinkPreviewRepository linkPreviewRepository, PostRepository postRepository,
+                              LinkPreviewFetcher linkPreviewFetcher,
+                              @Value("${link-preview.threads}") int threads,
+                              @Value("${link-preview.queue-capacity}") int queueCapacity,
+                              @Value("${link-preview.per-host-concurrency}") int perHostConcurrency,
+                              @Value("${link-preview.host-wait-ms}") long hostWaitMillis,
+                              @Value("${link-preview.cache-size}") int cacheSize,
+                              @Value("${link-preview.cache-ttl-ms}") long cacheTtlMillis,
+                              @Value("${link-preview.refresh-after-hours}") long refreshAfterHours) {
+        this.linkPreviewRepository = linkPreviewRepository;
+        this.postRepository = postRepository;
+        this.linkPreviewFetcher = linkPreviewFetcher;
+        this.hostWaitMillis = hostWaitMillis;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.refreshAfter = Duration.ofHours(refreshAfterHours);
+        for (int i = 0; i < HOST_STRIPES; i++) {
+            hostPermits[i] = new Semaphore(perHostConcurrency);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "link-preview-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedPreview>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPreview> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribe(PostCreated.class, "link-preview", event -> postRepository.findById(event.getPostId())
+                .map(Post::getUrl)
+                .ifPresent(this::requestPreview));
+    }
+
+    /* Queues the fetch of the preview of the url, unless a recent one is stored or it is queued already. */
+
+    public void requestPreview(String url) {
+        if (!StringUtils.hasText(url)) {
+            return;
+        }
+        String link = url.trim();
+        String hash = hash(link);
+        Optional<LinkPreview> stored = linkPreviewRepository.findByUrlHash(hash);
+        if (stored.isPresent() && stored.get().getFetchedDate().isAfter(Instant.now().minus(refreshAfter))) {
+            return;
+        }
+        if (!inFlight.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    fetchAndStore(link, hash);
+                } finally {
+                    inFlight.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash);
+            log.warn("Link preview queue is full, skipping the preview of {}", link);
+        }
+    }
+
+    /* Returns the available previews of the given urls by url. */
+
+    public Map<String, LinkPreviewDto> getPreviews(Collection<String> urls) {
+        Map<String, LinkPreviewDto> previews = new HashMap<>();
+        Map<String, String> missing = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (String url : urls) {
+            if (!StringUtils.hasText(url) || previews.containsKey(url)) {
+                continue;
+            }
+            String hash = hash(url.trim());
+            CachedPreview cached = cache.get(hash);
+            if (cached != null && cached.expiresAt > now) {
+                if (cached.preview != null) {
+                    previews.put(url, cached.preview);
+                }
+            } else {
+                missing.put(hash, url);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (LinkPreview linkPreview : linkPreviewRepository.findByUrlHashIn(missing.keySet())) {
+                LinkPreviewDto preview = linkPreview.isAvailable() ? mapToDto(linkPreview) : null;
+                cache.put(linkPreview.getUrlHash(), new CachedPreview(preview, now + cacheTtlMillis));
+                if (preview != null) {
+                    previews.put(missing.get(linkPreview.getUrlHash()), preview);
+                }
+            }
+        }
+        return previews;
+    }
+
+    public LinkPreviewDto getPreview(String url) {
+        return url == null ? null : getPreviews(Collections.singletonList(url)).get(url);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void fetchAndStore(String url, String hash) {
+        String host;
+        try {
+            host = new URI(url).getHost();
+        } catch (URISyntaxException e) {
+            host = null;
+        }
+        if (host == null) {
+            store(url, hash, Optional.empty());
+            return;
+        }
+        Semaphore permits = hostPermits[Math.floorMod(host.toLowerCase(Locale.ROOT).hashCode(), HOST_STRIPES)];
+        try {
+            if (!permits.tryAcquire(hostWaitMillis, TimeUnit.MILLISECONDS)) {
+                log.debug("Too many concurrent fetches from {}, skipping the preview of {}", host, url);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            store(url, hash, linkPreviewFetcher.fetch(url));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not fetch the preview of {}: {}", url, e.toString());
+            store(url, hash, Optional.empty());
+        } finally {
+            permits.release();
+        }
+    }
+
+//    Unavailable previews are stored as well, so that a failing url is not fetched again for every post.
+    private void store(String url, String hash, Optional<LinkPreviewDto> fetched) {
+        LinkPreview linkPreview = linkPreviewRepository.findByUrlHash(hash)
+                .orElseGet(() -> LinkPreview.builder().urlHash(hash).build());
+        linkPreview.setUrl(url.length() > 2048 ? url.substring(0, 2048) : url);
+        linkPreview.setAvailable(fetched.isPresent());
+        linkPreview.setTitle(fetched.map(LinkPreviewDto::getTitle).orElse(null));
+        linkPreview.setDescription(fetched.map(LinkPreviewDto::getDescription).orElse(null));
+        linkPreview.setImageUrl(fetched.map(LinkPreviewDto::getImageUrl).orElse(null));
+        linkPreview.setSiteName(fetched.map(LinkPreviewDto::getSiteName).orElse(null));
+        linkPreview.setFetchedDate(Instant.now());
+        linkPreviewRepository.save(linkPreview);
+        cache.remove(hash);
+    }
+
+    private static LinkPreviewDto mapToDto(LinkPreview linkPreview) {
+        return LinkPreviewDto.builder()
+                .url(linkPreview.getUrl())
+                .title(linkPreview.getTitle())
+                .description(linkPreview.getDescription())
+                .imageUrl(linkPreview.getImageUrl())
+                .siteName(linkPreview.getSiteName())
+                .build();
+    }
+
+    private static String hash(String url) {
+        return DigestUtils.md5DigestAsHex(url.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class CachedPreview {
+        private final LinkPreviewDto preview;
+        private final long expiresAt;
+
+        CachedPreview(LinkPreviewDto preview, long expiresAt) {
+            this.preview = preview;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.PostLiveUpdate;
+import com.vit.community.springapplication.event.CommentAdded;
+import com.vit.community.springapplication.event.CommentDeleted;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.event.VoteCast;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* The LivePostUpdateService pushes vote and comment count changes to clients
+* subscribed through Server-Sent Events.
+*
+* Vote and comment count changes arrive as domain events after commit.
+* Publishing never blocks the write path: changes are merged into one pending
+* delta per post and fanned out by a flusher every flush interval, so a hot post
+* produces at most one event per interval however many votes it receives.
+* Every connection has a bounded buffer drained by a small sender pool; a client
+* which cannot keep up and overflows its buffer is disconnected.
+*
+* A send to a stalled TCP connection blocks its sender thread until the socket write
+* times out. A send running for longer than send-timeout-ms therefore disconnects the
+* subscriber, and the pool gets an extra thread until that send returns, so stalled
+* clients cannot take the senders away from the healthy ones. The emitter is only ever
+* completed by the sender thread, as completing it waits for a send in progress.
+* */
+
+@Service
+@Slf4j
+public class LivePostUpdateService implements DomainEventSubscriber {
+
+//    Upper bound of the extra sender threads standing in for threads blocked in stalled sends.
+    private static final int MAX_REPLACED_SENDERS = 64;
+
+    private final Map<Long, Set<Subscriber>> subscribersByPost = new ConcurrentHashMap<>();
+    private final Map<Long, PostLiveUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final ThreadPoolExecutor senders;
+    private final int bufferSize;
+    private final int maxPostsPerSubscription;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private int replacedSenders;
+
+    public LivePostUpdateService(@Value("${live.updates.flush-interval-ms}") long flushIntervalMillis,
+                                 @Value("${live.updates.buffer-size}") int bufferSize,
+                                 @Value("${live.updates.max-posts-per-subscription}") int maxPostsPerSubscription,
+                                 @Value("${live.updates.timeout-ms}") long timeoutMillis,
+                                 @Value("${live.updates.sender-threads}") int senderThreads,
+                                 @Value("${live.updates.send-timeout-ms}") long sendTimeoutMillis) {
+        this.bufferSize = bufferSize;
+        this.maxPostsPerSubscription = maxPostsPerSubscription;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(namedThreads("live-flusher"));
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("live-sender"));
+        this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribe(VoteCast.class, "live-updates",
+                event -> publish(event.getPostId(), event.getVoteCount(), null));
+        eventBus.subscribe(CommentAdded.class, "live-updates",
+                event -> publish(event.getPostId(), null, event.getCommentCount()));
+        eventBus.subscribe(CommentDeleted.class, "live-updates",
+                event -> publish(event.getPostId(), null, event.getCommentCount()));
+    }
+
+    /*
+    * Opens a live update stream for the given post ids. The subscription ends when
+    * the client disconnects, the emitter times out or the client is too slow.
+    * */
+
+    public SseEmitter subscribe(Collection<Long> postIds) {
+        Set<Long> ids = new LinkedHashSet<>(postIds);
+        if (ids.isEmpty() || ids.size() > maxPostsPerSubscription) {
+            throw new SpringCommunityException("Subscribe to between 1 and " + maxPostsPerSubscription + " posts");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        for (Long id : ids) {
+//            Added inside compute, so that a concurrent close() cannot drop the set it is added to.
+            subscribersByPost.compute(id, (key, subscribers) -> {
+                Set<Subscriber> updated = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                updated.add(subscriber);
+                return updated;
+            });
+        }
+        if (subscriber.closed.get()) {
+            subscriber.unregister();
+        }
+        return emitter;
+    }
+
+    /*
+    * Publishes a change of the vote and/or comment count of a post. Inside a transaction
+    * the update is only published once the transaction has committed.
+    * */
+
+    public void publish(Long postId, Integer voteCount, Integer commentCount) {
+        if (!subscribersByPost.containsKey(postId)) {
+            return;
+        }
+        PostLiveUpdate update = new PostLiveUpdate(postId, voteCount, commentCount);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    pendingUpdates.merge(postId, update, LivePostUpdateService::coalesce);
+                }
+            });
+        } else {
+            pendingUpdates.merge(postId, update, LivePostUpdateService::coalesce);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return (int) subscribersByPost.values().stream().flatMap(Set::stream).distinct().count();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        senders.shutdownNow();
+        subscribersByPost.values().stream().flatMap(Set::stream).distinct()
+                .forEach(Subscriber::complete);
+    }
+
+//    Disconnects stalled subscribers, then hands the pending delta of every changed post to the buffers of its subscribers.
+
+    private void flush() {
+        try {
+            long now = System.nanoTime();
+            subscribersByPost.values().stream().flatMap(Set::stream).distinct()
+                    .forEach(subscriber -> subscriber.checkStalled(now));
+            for (Long postId : pendingUpdates.keySet()) {
+                PostLiveUpdate update = pendingUpdates.remove(postId);
+                Set<Subscriber> subscribers = subscribersByPost.get(postId);
+                if (update == null || subscribers == null) {
+                    continue;
+                }
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.offer(update);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Exception occurred while flushing live post updates", e);
+        }
+    }
+
+//    Adds a sender thread in place of one blocked in a stalled send, returns false at the limit.
+
+    private boolean addSender() {
+        synchronized (senders) {
+            if (replacedSenders >= MAX_REPLACED_SENDERS) {
+                return false;
+            }
+            replacedSenders++;
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+            senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+            return true;
+        }
+    }
+
+    private void removeSender() {
+        synchronized (senders) {
+            replacedSenders--;
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+
+    private static PostLiveUpdate coalesce(PostLiveUpdate older, PostLiveUpdate newer) {
+        return new PostLiveUpdate(newer.getPostId(),
+                newer.getVoteCount() != null ? newer.getVoteCount() : older.getVoteCount(),
+                newer.getCommentCount() != null ? newer.getCommentCount() : older.getCommentCount());
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /*
+    * One SSE connection. Updates are queued in a bounded buffer and written by
+    * at most one sender thread at a time, which also completes the emitter once
+    * the subscriber has been closed.
+    * */
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> postIds;
+        private final BlockingQueue<PostLiveUpdate> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+//        Guarded by this: start of the send in progress (0 if none), and whether it was found stalled.
+        private long sendStartedNanos;
+        private boolean stalled;
+        private boolean replacedSender;
+
+        Subscriber(SseEmitter emitter, Set<Long> postIds) {
+            this.emitter = emitter;
+            this.postIds = postIds;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(PostLiveUpdate update) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(update)) {
+                log.warn("Dropping slow live update subscriber for posts {}", postIds);
+                close();
+            }
+            scheduleDrain();
+        }
+
+        void checkStalled(long now) {
+            synchronized (this) {
+                if (sendStartedNanos == 0 || stalled
+                        || now - sendStartedNanos < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                    return;
+                }
+                stalled = true;
+                replacedSender = addSender();
+            }
+            log.warn("Dropping live update subscriber for posts {}, a send is blocked for more than {} ms",
+                    postIds, sendTimeoutMillis);
+            close();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                    complete();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                PostLiveUpdate update;
+                while (!closed.get() && (update = buffer.poll()) != null) {
+                    sendStarted();
+                    try {
+                        emitter.send(SseEmitter.event().name("post-update").data(update));
+                    } finally {
+                        sendFinished();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                complete();
+            } else if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private synchronized void sendStarted() {
+            sendStartedNanos = System.nanoTime();
+        }
+
+        private synchronized void sendFinished() {
+            sendStartedNanos = 0;
+            if (replacedSender) {
+                replacedSender = false;
+                removeSender();
+            }
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                unregister();
+                buffer.clear();
+            }
+        }
+
+        void unregister() {
+            for (Long postId : postIds) {
+                subscribersByPost.computeIfPresent(postId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+        }
+    }
+}
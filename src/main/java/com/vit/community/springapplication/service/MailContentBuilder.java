@@ -1,28 +1,162 @@
 package com.vit.community.springapplication.service;
 
-import lombok.AllArgsConstructor;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
 /*
-* The MailContentBuilder class contains a method which takes the email message
-* to be sent as an input and injects it into the HTMl mail template at runtime
-* using the Thymeleaf template engine and RETURNS the mail in the HTML format.
+* The MailContentBuilder class contains methods which take the email message(s)
+* to be sent as an input and inject them into the HTML mail templates, returning
+* the mail in the HTML format, as well as the plain text alternative of the mail.
+*
+* The Thymeleaf template engine only runs once per template: the template is rendered
+* with placeholder values and split around them into constant text segments. Every
+* mail is then rendered by appending the segments and the HTML-escaped messages
+* (escaped like th:text does) into a per-thread buffer which is reused between mails.
 *
-* The Lombok library generates the all arguments constructor, and the fields
-* are automatically autowired (initialised) by Spring at runtime.
+* - mailTemplate: a single mail, the message variable may be used several times.
+* - digestTemplate: a digest of several messages, the messages variable must be
+*   iterated exactly once with th:each.
 * */
 
 @Service
-@AllArgsConstructor
 public class MailContentBuilder {
 
+    private static final String PLACEHOLDER = "mailcontentplaceholder";
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
     private final TemplateEngine templateEngine;
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    public MailContentBuilder(TemplateEngine templateEngine) {
+        this.templateEngine = templateEngine;
+    }
 
     public String build(String message) {
+        CompiledTemplate template = compiledTemplates.computeIfAbsent("mailTemplate", this::compileSingle);
+        return render(template, Collections.singletonList(message));
+    }
+
+    public String buildText(String message) {
+        return message;
+    }
+
+    /* Renders several messages into one digest mail. */
+
+    public String buildDigest(List<String> messages) {
+        CompiledTemplate template = compiledTemplates.computeIfAbsent("digestTemplate", this::compileRepeated);
+        return render(template, messages);
+    }
+
+    public String buildDigestText(List<String> messages) {
+        StringBuilder text = new StringBuilder();
+        for (String message : messages) {
+            text.append("- ").append(message).append('\n');
+        }
+        return text.toString();
+    }
+
+    private String render(CompiledTemplate template, List<String> values) {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, values);
+        String rendered = buffer.toString();
+//        Do not keep a buffer grown by an unusually large digest alive for the lifetime of the thread.
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            buffers.remove();
+        }
+        return rendered;
+    }
+
+    private CompiledTemplate compileSingle(String templateName) {
         Context context = new Context();
-        context.setVariable("message", message);
-        return templateEngine.process("mailTemplate", context);
+        context.setVariable("message", PLACEHOLDER);
+        String[] segments = templateEngine.process(templateName, context).split(Pattern.quote(PLACEHOLDER), -1);
+        return new CompiledTemplate(segments, false);
+    }
+
+    private CompiledTemplate compileRepeated(String templateName) {
+        Context context = new Context();
+        context.setVariable("messages", Arrays.asList(PLACEHOLDER, PLACEHOLDER));
+        String[] segments = templateEngine.process(templateName, context).split(Pattern.quote(PLACEHOLDER), -1);
+        if (segments.length != 3) {
+            throw new SpringCommunityException("Mail template " + templateName
+                    + " must output each of its messages exactly once");
+        }
+        return new CompiledTemplate(segments, true);
+    }
+
+    /*
+    * A template reduced to its constant text segments. The values are written between the segments:
+    * for a single mail the same value into every gap, for a digest one value per gap, where the
+    * middle segment (the markup between two consecutive items) is repeated as needed.
+    * */
+
+    private static final class CompiledTemplate {
+        private final String[] segments;
+        private final boolean repeated;
+
+        CompiledTemplate(String[] segments, boolean repeated) {
+            this.segments = segments;
+            this.repeated = repeated;
+        }
+
+        void renderTo(StringBuilder buffer, List<String> values) {
+            if (!repeated) {
+                buffer.append(segments[0]);
+                for (int i = 1; i < segments.length; i++) {
+                    escapeTo(buffer, values.get(0));
+                    buffer.append(segments[i]);
+                }
+                return;
+            }
+            buffer.append(segments[0]);
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    buffer.append(segments[1]);
+                }
+                escapeTo(buffer, values.get(i));
+            }
+            buffer.append(segments[2]);
+        }
+
+        /* Same escaping as th:text: only the characters which are significant in markup. */
+
+        private static void escapeTo(StringBuilder buffer, String value) {
+            if (value == null) {
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        buffer.append("&amp;");
+                        break;
+                    case '<':
+                        buffer.append("&lt;");
+                        break;
+                    case '>':
+                        buffer.append("&gt;");
+                        break;
+                    case '"':
+                        buffer.append("&quot;");
+                        break;
+                    case '\'':
+                        buffer.append("&#39;");
+                        break;
+                    default:
+                        buffer.append(c);
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -46,11 +46,16 @@ class MailService {
     @Async
     void sendMail(NotificationEmail notificationEmail) {
         MimeMessagePreparator messagePreparator = mimeMessage -> {
-            MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage);
+            MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
             messageHelper.setFrom("springvit@email.com");
             messageHelper.setTo(notificationEmail.getRecipient());
             messageHelper.setSubject(notificationEmail.getSubject());
-            messageHelper.setText(notificationEmail.getBody());
+//            multipart/alternative: mail clients show the HTML body, or the text body if they cannot
+            if (notificationEmail.getTextBody() != null) {
+                messageHelper.setText(notificationEmail.getTextBody(), notificationEmail.getBody());
+            } else {
+                messageHelper.setText(notificationEmail.getBody(), true);
+            }
         };
         try {
             mailSender.send(messagePreparator);
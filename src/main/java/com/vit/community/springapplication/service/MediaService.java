@@ -0,0 +1,126 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.MediaResponse;
+import com.vit.community.springapplication.exceptions.PostNotFoundException;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import com.vit.community.springapplication.model.MediaAttachment;
+import com.vit.community.springapplication.model.Post;
+import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.repository.MediaAttachmentRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+/*
+* The MediaService attaches uploaded images to posts and looks up the stored files.
+*
+* Uploads are written to the MediaStore before the attachment row is saved, so no
+* database connection is held while the file is copied. The thumbnail is rendered
+* in the background once the attachment has been saved.
+* */
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class MediaService {
+
+    private final MediaAttachmentRepository mediaAttachmentRepository;
+    private final PostRepository postRepository;
+    private final MediaStore mediaStore;
+    private final ThumbnailService thumbnailService;
+    private final AuthService authService;
+
+    /*
+    * Stores the uploaded file and attaches it to the post with the given id.
+    * Only the creator of the post can attach files to it.
+    * */
+
+    public MediaResponse upload(Long postId, MultipartFile file) throws IOException {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new PostNotFoundException(postId.toString()));
+        User currentUser = authService.getCurrentUser();
+        if (post.getUser() == null || !post.getUser().getUserId().equals(currentUser.getUserId())) {
+            throw new SpringCommunityException("Only the creator of a post can attach files to it");
+        }
+        MediaStore.StoredMedia stored;
+        try (InputStream inputStream = file.getInputStream()) {
+            stored = mediaStore.store(inputStream);
+        }
+        if (stored.isDuplicate()) {
+            log.debug("Upload to post {} is a duplicate of stored content {}", postId, stored.getHash());
+        }
+        MediaAttachment attachment = mediaAttachmentRepository.save(MediaAttachment.builder()
+                .contentHash(stored.getHash())
+                .contentType(stored.getContentType())
+                .size(stored.getSize())
+                .fileName(file.getOriginalFilename())
+                .post(post)
+                .user(currentUser)
+                .createdDate(Instant.now())
+                .build());
+        thumbnailService.requestThumbnail(stored.getHash());
+        return mapToDto(attachment, postId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MediaResponse> getMediaForPost(Long postId) {
+        return mediaAttachmentRepository.findAllByPostPostIdOrderById(postId)
+                .stream()
+                .map(attachment -> mapToDto(attachment, postId))
+                .collect(toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<MediaAttachment> getMedia(Long id) {
+        return mediaAttachmentRepository.findById(id);
+    }
+
+    public Path getContentPath(MediaAttachment attachment) {
+        return mediaStore.path(attachment.getContentHash());
+    }
+
+    /*
+    * Returns the path of the thumbnail of the attachment if it has been rendered.
+    * Otherwise queues its rendering, e.g. when it was dropped from a full queue earlier.
+    * */
+
+    public Optional<Path> getThumbnailPath(MediaAttachment attachment) {
+        Path thumbnail = mediaStore.thumbnailPath(attachment.getContentHash());
+        if (Files.exists(thumbnail)) {
+            return Optional.of(thumbnail);
+        }
+        thumbnailService.requestThumbnail(attachment.getContentHash());
+        return Optional.empty();
+    }
+
+//    The stored files are kept, as other attachments may share the same content.
+    @Transactional
+    public void deleteAllMediaForPost(Post post) {
+        mediaAttachmentRepository.deleteAllByPost(post);
+    }
+
+    private static MediaResponse mapToDto(MediaAttachment attachment, Long postId) {
+        return MediaResponse.builder()
+                .id(attachment.getId())
+                .postId(postId)
+                .fileName(attachment.getFileName())
+                .contentType(attachment.getContentType())
+                .size(attachment.getSize())
+                .url("/api/media/" + attachment.getId())
+                .thumbnailUrl("/api/media/" + attachment.getId() + "/thumbnail")
+                .build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/*
+* The MediaStore keeps uploaded files on the local disk, addressed by the SHA-256 hash
+* of their content: a file is stored once however often it is uploaded.
+*
+* Uploads are copied through a reusable direct buffer into a temporary file while the
+* hash is computed in the same pass, so the heap use does not grow with the file size.
+* The finished file is then renamed to its content address; if that already exists the
+* upload was a duplicate and the temporary file is dropped.
+*
+* WebP images are only accepted if an ImageIO reader for them is on the classpath, as
+* the ThumbnailService could not render thumbnails of them otherwise.
+* */
+
+@Service
+@Slf4j
+public class MediaStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LENGTH = 12;
+    private static final boolean WEBP_SUPPORTED = ImageIO.getImageReadersByMIMEType("image/webp").hasNext();
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private final Path contentDir;
+    private final Path thumbnailDir;
+    private final Path uploadDir;
+
+    public MediaStore(@Value("${media.storage-dir}") String storageDir) {
+        Path root = Paths.get(storageDir).toAbsolutePath();
+        this.contentDir = root.resolve("content");
+        this.thumbnailDir = root.resolve("thumbnails");
+        this.uploadDir = root.resolve("uploads");
+    }
+
+    /*
+    * Stores the content of the stream and returns its hash, size and detected content type.
+    * Only JPEG, PNG and GIF images are accepted, and WebP images if they can be read.
+    * */
+
+    public StoredMedia store(InputStream inputStream) throws IOException {
+        Files.createDirectories(uploadDir);
+        Path upload = Files.createTempFile(uploadDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            ByteBuffer buffer = BUFFERS.get();
+            buffer.clear();
+            try (ReadableByteChannel source = Channels.newChannel(inputStream);
+                 FileChannel target = FileChannel.open(upload, WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            String contentType = detectContentType(upload);
+            if (contentType == null) {
+                throw new SpringCommunityException(WEBP_SUPPORTED
+                        ? "Only JPEG, PNG, GIF and WebP images can be attached"
+                        : "Only JPEG, PNG and GIF images can be attached");
+            }
+            String hash = toHex(digest.digest());
+            boolean duplicate = moveToContentAddress(upload, path(hash));
+            return new StoredMedia(hash, size, contentType, duplicate);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public Path path(String hash) {
+        return contentDir.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    public Path thumbnailPath(String hash) {
+        return thumbnailDir.resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+
+    private boolean moveToContentAddress(Path upload, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return true;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(upload, target, ATOMIC_MOVE);
+            return false;
+        } catch (FileAlreadyExistsException e) {
+//            The same content was stored concurrently.
+            return true;
+        }
+    }
+
+//    Detects the image format from the magic number at the start of the file.
+    private static String detectContentType(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SNIFF_LENGTH);
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            int read = 0;
+            while (header.hasRemaining() && read != -1) {
+                read = channel.read(header);
+            }
+        }
+        byte[] bytes = header.array();
+        if (header.position() >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (header.position() >= 8 && startsWith(bytes, 0, (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')) {
+            return "image/png";
+        }
+        if (header.position() >= 6 && startsWith(bytes, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (WEBP_SUPPORTED && header.position() >= 12 && startsWith(bytes, 0, 'R', 'I', 'F', 'F') && startsWith(bytes, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes[offset + i] != (byte) expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SpringCommunityException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredMedia {
+        private final String hash;
+        private final long size;
+        private final String contentType;
+//        True if the content was already stored by an earlier upload.
+        private final boolean duplicate;
+    }
+}
@@ -0,0 +1,186 @@
+package com.vit.community.springapplication.service;
+
+import com.github.marlonlom.utilities.timeago.TimeAgo;
+import com.vit.community.springapplication.dto.LinkPreviewDto;
+import com.vit.community.springapplication.dto.PostResponse;
+import com.vit.community.springapplication.event.*;
+import com.vit.community.springapplication.model.PostFeedView;
+import com.vit.community.springapplication.model.VoteType;
+import com.vit.community.springapplication.repository.PostFeedItem;
+import com.vit.community.springapplication.repository.PostFeedViewRepository;
+import com.vit.community.springapplication.repository.PostRepository;
+import com.vit.community.springapplication.repository.VoteRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/*
+* The PostFeedService maintains the post_feed_view read model and serves the post feeds from it.
+*
+* Writes: the view is updated in the transaction of every post, vote and comment change
+* through in-transaction subscriptions to the domain events, with single-row updates.
+* A repair job rebuilds the whole view from the source tables in one transaction: on
+* startup when the row counts differ, on a schedule, after bulk imports and on demand.
+*
+* Reads: feeds select the PostFeedItem projection from the view. Only the up/down vote
+* flags of the current user need another query, one for the whole page.
+* */
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class PostFeedService implements DomainEventSubscriber {
+
+    private static final double SCORE_SECONDS_PER_VOTE_MAGNITUDE = 45000;
+
+    private final PostFeedViewRepository postFeedViewRepository;
+    private final PostRepository postRepository;
+    private final VoteRepository voteRepository;
+    private final AuthService authService;
+    private final LinkPreviewService linkPreviewService;
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribeInTransaction(PostCreated.class, "post-feed", event -> insert(event.getPostId()));
+        eventBus.subscribeInTransaction(PostUpdated.class, "post-feed", event -> postRepository
+                .findById(event.getPostId())
+                .ifPresent(post -> postFeedViewRepository.updateContent(post.getPostId(), post.getPostName(),
+                        post.getDescription())));
+        eventBus.subscribeInTransaction(VoteCast.class, "post-feed", event -> postRepository
+                .findById(event.getPostId())
+                .ifPresent(post -> postFeedViewRepository.updateVotes(post.getPostId(), post.getVoteCount(),
+                        score(post.getVoteCount(), post.getCreatedDate()))));
+        eventBus.subscribeInTransaction(CommentAdded.class, "post-feed",
+                event -> postFeedViewRepository.updateCommentCount(event.getPostId(), event.getCommentCount()));
+        eventBus.subscribeInTransaction(CommentDeleted.class, "post-feed",
+                event -> postFeedViewRepository.updateCommentCount(event.getPostId(), event.getCommentCount()));
+        eventBus.subscribeInTransaction(PostDeleted.class, "post-feed",
+                event -> postFeedViewRepository.deleteRow(event.getPostId()));
+    }
+
+    /* Ranking score of a post, the same formula is used by the rebuild query. */
+
+    public static double score(Integer voteCount, Instant createdDate) {
+        int votes = voteCount == null ? 0 : voteCount;
+        return Math.signum(votes) * Math.log10(Math.max(Math.abs(votes), 1))
+                + createdDate.getEpochSecond() / SCORE_SECONDS_PER_VOTE_MAGNITUDE;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostFeedItem> getLatest(Long after, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        return after == null
+                ? postFeedViewRepository.findAllByOrderByPostIdDesc(page)
+                : postFeedViewRepository.findByPostIdLessThanOrderByPostIdDesc(after, page);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostFeedItem> getAll() {
+        return postFeedViewRepository.findAllByOrderByPostIdDesc(Pageable.unpaged());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostFeedItem> getBySubreddit(Long subredditId) {
+        return postFeedViewRepository.findBySubredditIdOrderByPostIdDesc(subredditId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PostFeedItem> getByUser(Long userId, Long after, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        return after == null
+                ? postFeedViewRepository.findByUserIdOrderByPostIdDesc(userId, page)
+                : postFeedViewRepository.findByUserIdAndPostIdLessThanOrderByPostIdDesc(userId, after, page);
+    }
+
+    /*
+    * Maps feed items to PostResponses, which are created lazily as the stream is consumed.
+    * The votes of the current user on all the items are read with a single query, and the
+    * link previews of their urls with one batch lookup.
+    * */
+
+    @Transactional(readOnly = true)
+    public Stream<PostResponse> toResponses(List<PostFeedItem> items) {
+        Map<Long, VoteType> votes = currentUserVotes(items);
+        Map<String, LinkPreviewDto> previews = linkPreviewService.getPreviews(items.stream()
+                .map(PostFeedItem::getUrl)
+                .collect(toList()));
+        return items.stream().map(item -> toResponse(item, votes.get(item.getPostId()),
+                item.getUrl() != null ? previews.get(item.getUrl()) : null));
+    }
+
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        postFeedViewRepository.deleteAllRows();
+        int rows = postFeedViewRepository.insertAllFromPosts();
+        log.info("Rebuilt post_feed_view with {} posts in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Scheduled(cron = "${feed.rebuild-cron}")
+    @Transactional
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildIfOutOfSync() {
+        long posts = postRepository.count();
+        long feedRows = postFeedViewRepository.count();
+        if (posts != feedRows) {
+            log.warn("post_feed_view has {} rows for {} posts, rebuilding", feedRows, posts);
+            rebuild();
+        }
+    }
+
+    private void insert(Long postId) {
+        postRepository.findById(postId).ifPresent(post -> postFeedViewRepository.save(PostFeedView.builder()
+                .postId(post.getPostId())
+                .postName(post.getPostName())
+                .url(post.getUrl())
+                .description(post.getDescription())
+                .userId(post.getUser() != null ? post.getUser().getUserId() : null)
+                .userName(post.getUser() != null ? post.getUser().getUsername() : null)
+                .subredditId(post.getSubreddit() != null ? post.getSubreddit().getId() : null)
+                .subredditName(post.getSubreddit() != null ? post.getSubreddit().getName() : null)
+                .voteCount(post.getVoteCount())
+                .commentCount(0)
+                .viewCount(0L)
+                .score(score(post.getVoteCount(), post.getCreatedDate()))
+                .createdDate(post.getCreatedDate())
+                .build()));
+    }
+
+    private Map<Long, VoteType> currentUserVotes(List<PostFeedItem> items) {
+        if (items.isEmpty() || !authService.isLoggedIn()) {
+            return Collections.emptyMap();
+        }
+        List<Long> postIds = items.stream().map(PostFeedItem::getPostId).collect(toList());
+        Map<Long, VoteType> votes = new HashMap<>();
+        for (Object[] row : voteRepository.findVoteTypesByUserAndPostIds(authService.getCurrentUser(), postIds)) {
+            votes.put((Long) row[0], (VoteType) row[1]);
+        }
+        return votes;
+    }
+
+    private PostResponse toResponse(PostFeedItem item, VoteType vote, LinkPreviewDto linkPreview) {
+        return new PostResponse(item.getPostId(), item.getPostName(), item.getUrl(), item.getDescription(),
+                item.getUserName(), item.getSubredditName(), item.getVoteCount(), item.getCommentCount(),
+                item.getViewCount(),
+                TimeAgo.using(item.getCreatedDate().toEpochMilli()),
+                VoteType.UPVOTE.equals(vote), VoteType.DOWNVOTE.equals(vote), linkPreview);
+    }
+}
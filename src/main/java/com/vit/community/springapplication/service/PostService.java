@@ -1,13 +1,19 @@
 package com.vit.community.springapplication.service;
 
+import com.vit.community.springapplication.dto.CursorPage;
 import com.vit.community.springapplication.dto.PostRequest;
 import com.vit.community.springapplication.dto.PostResponse;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.PostCreated;
+import com.vit.community.springapplication.event.PostDeleted;
+import com.vit.community.springapplication.event.PostUpdated;
 import com.vit.community.springapplication.exceptions.PostNotFoundException;
 import com.vit.community.springapplication.exceptions.SubredditNotFoundException;
 import com.vit.community.springapplication.mapper.PostMapper;
 import com.vit.community.springapplication.model.Post;
 import com.vit.community.springapplication.model.Subreddit;
 import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.repository.PostFeedItem;
 import com.vit.community.springapplication.repository.PostRepository;
 import com.vit.community.springapplication.repository.SubredditRepository;
 import com.vit.community.springapplication.repository.UserRepository;
@@ -17,7 +23,9 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static java.util.stream.Collectors.toList;
 
@@ -32,6 +40,8 @@ import static java.util.stream.Collectors.toList;
 @Transactional
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PostRepository postRepository;
     private final SubredditRepository subredditRepository;
     private final UserRepository userRepository;
@@ -39,6 +49,12 @@ public class PostService {
     private final VoteService voteService;
     private final AuthService authService;
     private final PostMapper postMapper;
+    private final ContentVersionService contentVersionService;
+    private final UserStatsService userStatsService;
+    private final DomainEventBus domainEventBus;
+    private final PostFeedService postFeedService;
+    private final MediaService mediaService;
+    private final HotPostCache hotPostCache;
 
     /*
     * Retrieves the subreddit with which the PostRequest is associated from the database,
@@ -49,7 +65,10 @@ public class PostService {
     public void save(PostRequest postRequest) {
         Subreddit subreddit = subredditRepository.findByName(postRequest.getSubredditName())
                 .orElseThrow(() -> new SubredditNotFoundException(postRequest.getSubredditName()));
-        postRepository.save(postMapper.map(postRequest, subreddit, authService.getCurrentUser()));
+        User currentUser = authService.getCurrentUser();
+        Post post = postRepository.save(postMapper.map(postRequest, subreddit, currentUser));
+        userStatsService.postCreated(currentUser);
+        domainEventBus.publish(new PostCreated(post.getPostId(), currentUser.getUserId(), subreddit.getId()));
     }
 
     public void save(PostRequest postRequest, Long id) {
@@ -58,7 +77,9 @@ public class PostService {
 
         post.setDescription(postRequest.getDescription());
         post.setPostName(postRequest.getPostName());
+        contentVersionService.touch(post);
         postRepository.save(post);
+        domainEventBus.publish(new PostUpdated(post.getPostId()));
     }
 
     public void delete(Long id) {
@@ -68,37 +89,71 @@ public class PostService {
         commentService.deleteAllCommentsForPost(post);
 //        Delete votes
         voteService.deleteAllVotesForPost(post);
+//        Delete media attachments
+        mediaService.deleteAllMediaForPost(post);
 //        Delete Post
         postRepository.delete(post);
+        userStatsService.postDeleted(post.getUser(), post.getVoteCount());
+        domainEventBus.publish(new PostDeleted(post.getPostId(),
+                post.getUser() != null ? post.getUser().getUserId() : null));
     }
 
     /*
     * Retrieves the Post with the given id from the database, maps it to a PostResponse
-    * using the PostMapper class and sends it back to the controller.
+    * using the PostMapper class and sends it back to the controller. Hot posts are
+    * served from their pinned feed row instead.
     * */
 
     @Transactional(readOnly = true)
     public PostResponse getPost(Long id) {
+        Optional<PostFeedItem> hotPost = hotPostCache.get(id);
+        if (hotPost.isPresent()) {
+            return postFeedService.toResponses(Collections.singletonList(hotPost.get())).findFirst().get();
+        }
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new PostNotFoundException(id.toString()));
         return postMapper.mapToDto(post);
     }
 
     /*
-    * Retrieves all the posts created from the database, maps them to PostResponse
+    * Returns the version token of the post with the given id. Only loads the post row,
+    * so it is much cheaper than building the PostResponse.
+    * */
+
+    @Transactional(readOnly = true)
+    public String getPostETag(Long id) {
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> new PostNotFoundException(id.toString()));
+        return contentVersionService.postETag(post);
+    }
+
+    /*
+    * Retrieves all the posts from the post feed read model, maps them to PostResponse
     * and returns them as a list of PostResponses.
     * */
 
     @Transactional(readOnly = true)
     public List<PostResponse> getAllPosts() {
-        return postRepository.findAll()
-                .stream()
-                .map(postMapper::mapToDto)
+        return postFeedService.toResponses(postFeedService.getAll())
                 .collect(toList());
     }
 
     /*
-     * Retrieves all the posts associated with the given subreddit id from the database,
+    * Retrieves one page of the latest posts from the post feed read model, newest first, starting
+    * after the post id given as cursor or at the newest post if it is null, and maps them to
+    * PostResponse together with the cursor of the next page.
+    * */
+
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getLatestPosts(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PostFeedItem> posts = postFeedService.getLatest(after, pageSize);
+        Long nextCursor = posts.size() == pageSize ? posts.get(posts.size() - 1).getPostId() : null;
+        return new CursorPage<>(postFeedService.toResponses(posts).collect(toList()), nextCursor);
+    }
+
+    /*
+     * Retrieves all the posts associated with the given subreddit id from the post feed read model,
      * maps them to PostResponse and returns them as a list of PostResponses.
      * */
 
@@ -106,24 +161,23 @@ public class PostService {
     public List<PostResponse> getPostsBySubreddit(Long subredditId) {
         Subreddit subreddit = subredditRepository.findById(subredditId)
                 .orElseThrow(() -> new SubredditNotFoundException(subredditId.toString()));
-        List<Post> posts = postRepository.findAllBySubreddit(subreddit);
-        return posts.stream()
-                .map(postMapper::mapToDto)
+        return postFeedService.toResponses(postFeedService.getBySubreddit(subreddit.getId()))
                 .collect(toList());
     }
 
     /*
-     * Retrieves all the posts created by a user with given username from the database,
-     * maps them to PostResponse and returns them as a list of PostResponses.
+     * Retrieves one page of the posts created by a user with given username from the post feed
+     * read model, newest first, and maps them to PostResponse together with the cursor of the next page.
+     * The page starts after the post id given as cursor, or at the newest post if it is null.
      * */
 
     @Transactional(readOnly = true)
-    public List<PostResponse> getPostsByUsername(String username) {
+    public CursorPage<PostResponse> getPostsByUsername(String username, Long after, int limit) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(username));
-        return postRepository.findByUser(user)
-                .stream()
-                .map(postMapper::mapToDto)
-                .collect(toList());
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PostFeedItem> posts = postFeedService.getByUser(user.getUserId(), after, pageSize);
+        Long nextCursor = posts.size() == pageSize ? posts.get(posts.size() - 1).getPostId() : null;
+        return new CursorPage<>(postFeedService.toResponses(posts).collect(toList()), nextCursor);
     }
 }
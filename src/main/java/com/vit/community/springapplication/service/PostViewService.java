@@ -0,0 +1,180 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.DomainEventSubscriber;
+import com.vit.community.springapplication.event.PostDeleted;
+import com.vit.community.springapplication.model.PostViewSketch;
+import com.vit.community.springapplication.repository.PostFeedViewRepository;
+import com.vit.community.springapplication.repository.PostViewSketchRepository;
+import com.vit.community.springapplication.util.HyperLogLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toMap;
+
+/*
+* The PostViewService counts the distinct viewers of every post, by username for logged
+* in users and by IP address otherwise, without a database write per view.
+*
+* Views are added to per-post HyperLogLog sketches in memory, of 2^precision bytes each
+* whatever the number of views. Every flush interval the sketches are merged into the
+* sketches stored in post_view_sketch, and the estimated counts are copied to the feed
+* read model. As merging is idempotent, sketches of a failed flush are simply merged
+* back and written with the next one. When more than max-pending-posts posts have been
+* viewed since the last flush, views of further posts are dropped until the next flush.
+* */
+
+@Service
+@Slf4j
+public class PostViewService implements DomainEventSubscriber {
+
+    private final PostViewSketchRepository postViewSketchRepository;
+    private final PostFeedViewRepository postFeedViewRepository;
+    private final HotPostCache hotPostCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int precision;
+    private final int maxPendingPosts;
+//    Views take the read lock, flushes take the write lock to swap the pending sketches.
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+    private final AtomicLong droppedViews = new AtomicLong();
+    private volatile Map<Long, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public PostViewService(PostViewSketchRepository postViewSketchRepository,
+                           PostFeedViewRepository postFeedViewRepository,
+                           HotPostCache hotPostCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${views.precision}") int precision,
+                           @Value("${views.max-pending-posts}") int maxPendingPosts) {
+        this.postViewSketchRepository = postViewSketchRepository;
+        this.postFeedViewRepository = postFeedViewRepository;
+        this.hotPostCache = hotPostCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.precision = precision;
+        this.maxPendingPosts = maxPendingPosts;
+    }
+
+    @Override
+    public void subscribe(DomainEventBus eventBus) {
+        eventBus.subscribeInTransaction(PostDeleted.class, "post-views", event -> {
+            pending.remove(event.getPostId());
+            postViewSketchRepository.deleteRow(event.getPostId());
+        });
+    }
+
+    public void recordView(Long postId, String viewer) {
+        long hash = HyperLogLog.hash(viewer);
+        pendingLock.readLock().lock();
+        try {
+            HyperLogLog sketch = pending.get(postId);
+            if (sketch == null) {
+                if (pending.size() >= maxPendingPosts) {
+                    droppedViews.incrementAndGet();
+                    return;
+                }
+                sketch = pending.computeIfAbsent(postId, id -> new HyperLogLog(precision));
+            }
+            sketch.addHash(hash);
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Long getViewCount(Long postId) {
+        return postViewSketchRepository.findViewCount(postId).orElse(0L);
+    }
+
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms}")
+    public void flush() {
+        Map<Long, HyperLogLog> flushing;
+        pendingLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            flushing = pending;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        long dropped = droppedViews.getAndSet(0);
+        if (dropped > 0) {
+            log.warn("Dropped {} post views, more than {} posts were viewed within a flush interval",
+                    dropped, maxPendingPosts);
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                write(flushing);
+                return null;
+            });
+            flushing.keySet().forEach(hotPostCache::evict);
+        } catch (RuntimeException e) {
+            log.warn("Exception occurred while flushing the views of {} posts, retrying with the next flush",
+                    flushing.size(), e);
+            mergeBack(flushing);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, HyperLogLog> flushing) {
+        Map<Long, PostViewSketch> stored = postViewSketchRepository.findAllForUpdate(flushing.keySet())
+                .stream()
+                .collect(toMap(PostViewSketch::getPostId, Function.identity()));
+        Instant now = Instant.now();
+        for (Map.Entry<Long, HyperLogLog> entry : flushing.entrySet()) {
+            Long postId = entry.getKey();
+            HyperLogLog sketch = entry.getValue();
+            PostViewSketch row = stored.get(postId);
+            if (row != null) {
+                HyperLogLog storedSketch = HyperLogLog.fromBytes(row.getRegisters());
+                if (storedSketch.getPrecision() == sketch.getPrecision()) {
+                    sketch.merge(storedSketch);
+                } else {
+                    log.warn("Replacing the view sketch of post {} of precision {} with precision {}",
+                            postId, storedSketch.getPrecision(), sketch.getPrecision());
+                }
+            } else {
+                row = PostViewSketch.builder().postId(postId).build();
+            }
+            long viewCount = sketch.estimate();
+//            Posts deleted since they were viewed are not in the feed read model any more.
+            if (postFeedViewRepository.updateViewCount(postId, viewCount) == 0) {
+                continue;
+            }
+            row.setRegisters(sketch.toBytes());
+            row.setViewCount(viewCount);
+            row.setUpdatedDate(now);
+            postViewSketchRepository.save(row);
+        }
+    }
+
+    private void mergeBack(Map<Long, HyperLogLog> flushing) {
+        pendingLock.readLock().lock();
+        try {
+            flushing.forEach((postId, sketch) -> pending.merge(postId, sketch, (current, failed) -> {
+                current.merge(failed);
+                return current;
+            }));
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+}
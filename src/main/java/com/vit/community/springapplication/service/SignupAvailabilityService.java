@@ -0,0 +1,105 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.repository.UserRepository;
+import com.vit.community.springapplication.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/*
+* The SignupAvailabilityService keeps an in-memory Bloom filter of every registered
+* username and email address, so that signup and the availability check can answer
+* "definitely free" without touching the database.
+*
+* The filters are filled once at startup by streaming the user table and are updated
+* on every signup. Only a "might be taken" answer is confirmed against the database.
+* The unique constraints on the user table remain the final guard, e.g. for users
+* registered through another application instance.
+* */
+
+@Service
+@Slf4j
+public class SignupAvailabilityService {
+
+    private final UserRepository userRepository;
+    private final BloomFilter usernames;
+    private final BloomFilter emails;
+    private volatile boolean loaded;
+
+    public SignupAvailabilityService(UserRepository userRepository,
+                                     @Value("${signup.filter.expected-users}") long expectedUsers,
+                                     @Value("${signup.filter.false-positive-rate}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /*
+    * Streams all usernames and emails into the filters once the application is ready.
+    * Until loading completes every lookup falls back to the database.
+    * */
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadExistingUsers() {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        try (Stream<Object[]> rows = userRepository.streamAllUsernamesAndEmails()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                put(usernames, (String) row[0]);
+                put(emails, (String) row[1]);
+                count++;
+            }
+        }
+        loaded = true;
+        log.info("Loaded {} users into signup filters ({} bits, {} hash functions) in {} ms",
+                count, usernames.getBitSize(), usernames.getHashFunctions(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (!StringUtils.hasText(username)) {
+            return false;
+        }
+        if (loaded && !usernames.mightContain(normalize(username))) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (!StringUtils.hasText(email)) {
+            return false;
+        }
+        if (loaded && !emails.mightContain(normalize(email))) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+//    Called after a new user is saved so that later lookups see it.
+
+    public void register(User user) {
+        put(usernames, user.getUsername());
+        put(emails, user.getEmail());
+    }
+
+    private void put(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+
+//    MySQL compares usernames and emails case-insensitively, so the filters must as well.
+
+    private String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
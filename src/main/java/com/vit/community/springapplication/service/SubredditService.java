@@ -1,6 +1,8 @@
 package com.vit.community.springapplication.service;
 
 import com.vit.community.springapplication.dto.SubredditDto;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.SubredditCreated;
 import com.vit.community.springapplication.exceptions.SpringCommunityException;
 import com.vit.community.springapplication.mapper.SubredditMapper;
 import com.vit.community.springapplication.model.Subreddit;
@@ -30,6 +32,8 @@ public class SubredditService {
 
     private final SubredditRepository subredditRepository;
     private final SubredditMapper subredditMapper;
+    private final ContentVersionService contentVersionService;
+    private final DomainEventBus domainEventBus;
 
     /*
     * This method saves the subreddit into the database using the subredditRepository after
@@ -39,6 +43,7 @@ public class SubredditService {
     public SubredditDto save(SubredditDto subredditDto) {
         Subreddit save = subredditRepository.save(subredditMapper.mapDtoToSubreddit(subredditDto));
         subredditDto.setId(save.getId());
+        domainEventBus.publish(new SubredditCreated(save.getId(), save.getName()));
         return subredditDto;
     }
 
@@ -55,6 +60,15 @@ public class SubredditService {
                 .collect(toList());
     }
 
+    /*
+    * Returns the version token of the subreddit list returned by getAll().
+    * */
+
+    @Transactional(readOnly = true)
+    public String getAllETag() {
+        return contentVersionService.subredditsETag();
+    }
+
     /*
     * This method retrieves the subreddit with the given id from the database using the subredditRepository,
     * maps it to a subredditDto and returns it back to the controller.
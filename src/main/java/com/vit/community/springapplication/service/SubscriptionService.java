@@ -0,0 +1,67 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.SubredditDto;
+import com.vit.community.springapplication.exceptions.SubredditNotFoundException;
+import com.vit.community.springapplication.mapper.SubredditMapper;
+import com.vit.community.springapplication.model.Subreddit;
+import com.vit.community.springapplication.model.Subscription;
+import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.repository.SubredditRepository;
+import com.vit.community.springapplication.repository.SubscriptionRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/*
+* The SubscriptionService subscribes the current user to subreddits and unsubscribes
+* them. Every change drops the home timeline of the user, which is rebuilt from the
+* new subscriptions on the next read.
+* */
+
+@Service
+@AllArgsConstructor
+@Transactional
+public class SubscriptionService {
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubredditRepository subredditRepository;
+    private final SubredditMapper subredditMapper;
+    private final AuthService authService;
+    private final HomeFeedService homeFeedService;
+
+    public void subscribe(Long subredditId) {
+        Subreddit subreddit = subredditRepository.findById(subredditId)
+                .orElseThrow(() -> new SubredditNotFoundException(subredditId.toString()));
+        User currentUser = authService.getCurrentUser();
+        if (subscriptionRepository.existsByUserUserIdAndSubredditId(currentUser.getUserId(), subredditId)) {
+            return;
+        }
+        subscriptionRepository.save(Subscription.builder()
+                .user(currentUser)
+                .subreddit(subreddit)
+                .createdDate(Instant.now())
+                .build());
+        homeFeedService.invalidate(currentUser.getUserId());
+    }
+
+    public void unsubscribe(Long subredditId) {
+        User currentUser = authService.getCurrentUser();
+        if (subscriptionRepository.deleteByUserIdAndSubredditId(currentUser.getUserId(), subredditId) > 0) {
+            homeFeedService.invalidate(currentUser.getUserId());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SubredditDto> getSubscriptions() {
+        List<Long> subredditIds = subscriptionRepository.findSubredditIdsByUserId(authService.getCurrentUser().getUserId());
+        return subredditRepository.findAllById(subredditIds)
+                .stream()
+                .map(subredditMapper::mapSubredditToDto)
+                .collect(toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.vit.community.springapplication.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/*
+* The ThumbnailService renders JPEG thumbnails of stored images in the background.
+*
+* Thumbnails are rendered on a small fixed pool with a bounded queue, so bursts of uploads
+* cannot take more CPU or memory than the pool allows; when the queue is full the request
+* is dropped and the thumbnail is rendered when it is first asked for. Images are decoded
+* with subsampling, so that a large image is never fully decoded into memory.
+*
+* Content for which no image reader exists (e.g. WebP images stored by an earlier version
+* without a WebP reader) is remembered, so that it is not queued again on every request.
+* */
+
+@Service
+@Slf4j
+public class ThumbnailService {
+
+    private final MediaStore mediaStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> unreadable = ConcurrentHashMap.newKeySet();
+    private final int thumbnailSize;
+
+    public ThumbnailService(MediaStore mediaStore,
+                            @Value("${media.thumbnail.size}") int thumbnailSize,
+                            @Value("${media.thumbnail.threads}") int threads,
+                            @Value("${media.thumbnail.queue-capacity}") int queueCapacity) {
+        this.mediaStore = mediaStore;
+        this.thumbnailSize = thumbnailSize;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /* Queues the rendering of the thumbnail of the given content, unless it exists or is queued already. */
+
+    public void requestThumbnail(String hash) {
+        if (unreadable.contains(hash) || Files.exists(mediaStore.thumbnailPath(hash)) || !pending.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(hash);
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            log.warn("Thumbnail queue is full, skipping thumbnail of {}", hash);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void render(String hash) {
+        Path target = mediaStore.thumbnailPath(hash);
+        try (ImageInputStream input = ImageIO.createImageInputStream(mediaStore.path(hash).toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                unreadable.add(hash);
+                log.warn("No image reader for the content {}, no thumbnail rendered", hash);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+//                Decode at no more than twice the thumbnail size, the rest is scaled down smoothly.
+                int subsampling = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                double scale = Math.min(1.0, (double) thumbnailSize / Math.max(image.getWidth(), image.getHeight()));
+                int thumbnailWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+                int thumbnailHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+                BufferedImage thumbnail = new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = thumbnail.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, thumbnailWidth, thumbnailHeight);
+                    graphics.drawImage(image, 0, 0, thumbnailWidth, thumbnailHeight, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                Files.createDirectories(target.getParent());
+                Path temp = Files.createTempFile(target.getParent(), hash, ".part");
+                try {
+                    ImageIO.write(thumbnail, "jpg", temp.toFile());
+                    Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Exception occurred while rendering the thumbnail of {}", hash, e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.TrendingItem;
+import com.vit.community.springapplication.dto.TrendingResponse;
+import com.vit.community.springapplication.model.Subreddit;
+import com.vit.community.springapplication.repository.PostFeedItem;
+import com.vit.community.springapplication.repository.PostFeedViewRepository;
+import com.vit.community.springapplication.repository.SubredditRepository;
+import com.vit.community.springapplication.util.HeavyHitters;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/*
+* The TrendingService finds the hot posts and subreddits in real time.
+*
+* Post reads, subreddit feed reads and votes (weighted by vote-weight) are counted by
+* HeavyHitters trackers, which use a fixed amount of memory however many posts there are.
+* All counts are halved every decay interval, so the ranking follows the recent traffic.
+* Every refresh interval the top-k posts are handed to the HotPostsListener beans when
+* they have changed.
+* */
+
+@Service
+@Slf4j
+public class TrendingService {
+
+    private final HeavyHitters posts;
+    private final HeavyHitters subreddits;
+    private final ObjectProvider<HotPostsListener> hotPostsListeners;
+    private final PostFeedViewRepository postFeedViewRepository;
+    private final SubredditRepository subredditRepository;
+    private final int topK;
+    private final long voteWeight;
+    private volatile List<Long> hotPostIds = Collections.emptyList();
+
+    public TrendingService(ObjectProvider<HotPostsListener> hotPostsListeners,
+                           PostFeedViewRepository postFeedViewRepository,
+                           SubredditRepository subredditRepository,
+                           @Value("${trending.top-k}") int topK,
+                           @Value("${trending.candidates}") int candidates,
+                           @Value("${trending.sketch-width}") int sketchWidth,
+                           @Value("${trending.sketch-depth}") int sketchDepth,
+                           @Value("${trending.vote-weight}") long voteWeight) {
+        this.hotPostsListeners = hotPostsListeners;
+        this.postFeedViewRepository = postFeedViewRepository;
+        this.subredditRepository = subredditRepository;
+        this.topK = topK;
+        this.voteWeight = voteWeight;
+        this.posts = new HeavyHitters(candidates, sketchWidth, sketchDepth);
+        this.subreddits = new HeavyHitters(candidates, sketchWidth, sketchDepth);
+    }
+
+    public void postRead(Long postId) {
+        posts.add(postId, 1);
+    }
+
+    public void subredditRead(Long subredditId) {
+        subreddits.add(subredditId, 1);
+    }
+
+    public void postVoted(Long postId, Long subredditId) {
+        posts.add(postId, voteWeight);
+        if (subredditId != null) {
+            subreddits.add(subredditId, voteWeight);
+        }
+    }
+
+    public List<Long> getHotPostIds() {
+        return hotPostIds;
+    }
+
+    /* Returns the hot posts and subreddits, hottest first, with their names. */
+
+    @Transactional(readOnly = true)
+    public TrendingResponse getTrending(int limit) {
+        int size = Math.max(1, Math.min(limit, topK));
+        List<Map.Entry<Long, Long>> topPosts = posts.top(size);
+        List<Map.Entry<Long, Long>> topSubreddits = subreddits.top(size);
+
+        Map<Long, PostFeedItem> postsById = topPosts.isEmpty() ? Collections.emptyMap()
+                : postFeedViewRepository.findByPostIdIn(topPosts.stream().map(Map.Entry::getKey).collect(toList()))
+                .stream()
+                .collect(toMap(PostFeedItem::getPostId, Function.identity()));
+        Map<Long, Subreddit> subredditsById = topSubreddits.isEmpty() ? Collections.emptyMap()
+                : subredditRepository.findAllById(topSubreddits.stream().map(Map.Entry::getKey).collect(toList()))
+                .stream()
+                .collect(toMap(Subreddit::getId, Function.identity()));
+
+//        Deleted posts and subreddits are left out until they decay away.
+        List<TrendingItem> trendingPosts = topPosts.stream()
+                .filter(entry -> postsById.containsKey(entry.getKey()))
+                .map(entry -> new TrendingItem(entry.getKey(), postsById.get(entry.getKey()).getPostName(),
+                        entry.getValue()))
+                .collect(toList());
+        List<TrendingItem> trendingSubreddits = topSubreddits.stream()
+                .filter(entry -> subredditsById.containsKey(entry.getKey()))
+                .map(entry -> new TrendingItem(entry.getKey(), subredditsById.get(entry.getKey()).getName(),
+                        entry.getValue()))
+                .collect(toList());
+        return new TrendingResponse(trendingPosts, trendingSubreddits);
+    }
+
+    @Scheduled(fixedDelayString = "${trending.decay-interval-ms}")
+    public void decay() {
+        posts.decay();
+        subreddits.decay();
+    }
+
+    @Scheduled(fixedDelayString = "${trending.refresh-interval-ms}")
+    public void refreshHotPosts() {
+        List<Long> current = posts.top(topK).stream().map(Map.Entry::getKey).collect(toList());
+        if (new HashSet<>(current).equals(new HashSet<>(hotPostIds))) {
+            return;
+        }
+        hotPostIds = Collections.unmodifiableList(current);
+        hotPostsListeners.forEach(listener -> {
+            try {
+                listener.hotPostsChanged(hotPostIds);
+            } catch (RuntimeException e) {
+                log.error("Exception occurred while notifying {} of the hot posts", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+}
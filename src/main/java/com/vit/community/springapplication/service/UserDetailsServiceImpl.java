@@ -1,5 +1,6 @@
 package com.vit.community.springapplication.service;
 
+import com.vit.community.springapplication.config.AdminProperties;
 import com.vit.community.springapplication.model.User;
 import com.vit.community.springapplication.repository.UserRepository;
 import lombok.AllArgsConstructor;
@@ -11,10 +12,11 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Optional;
 
-import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 
 /*
 * This class implements the UserDetailsService interface and validates the user against
@@ -25,6 +27,7 @@ import static java.util.Collections.singletonList;
 @AllArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
     private final UserRepository userRepository;
+    private final AdminProperties adminProperties;
 
     @Override
     @Transactional(readOnly = true)
@@ -37,12 +40,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return new org.springframework.security
                 .core.userdetails.User(user.getUsername(), user.getPassword(),
                 user.isEnabled(), true, true,
-                true, getAuthorities("USER"));
+                true, adminProperties.getUsernames().contains(user.getUsername())
+                        ? getAuthorities("USER", "ADMIN") : getAuthorities("USER"));
     }
 
-//    Grants a list of USER authorities to the user.
+//    Grants a list of authorities to the user. Users listed in admin.usernames also get ADMIN.
 
-    private Collection<? extends GrantedAuthority> getAuthorities(String role) {
-        return singletonList(new SimpleGrantedAuthority(role));
+    private Collection<? extends GrantedAuthority> getAuthorities(String... roles) {
+        return Arrays.stream(roles).map(SimpleGrantedAuthority::new).collect(toList());
     }
 }
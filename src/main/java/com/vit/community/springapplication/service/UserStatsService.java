@@ -0,0 +1,95 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.UserSummaryResponse;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import com.vit.community.springapplication.model.User;
+import com.vit.community.springapplication.model.UserStats;
+import com.vit.community.springapplication.repository.UserRepository;
+import com.vit.community.springapplication.repository.UserStatsRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+* The UserStatsService maintains the per-user post count, comment count and karma
+* shown on the profile page.
+*
+* The counters are changed with single upsert statements in the same transaction
+* as the post, comment or vote they count. Users without a user_stats row yet
+* (e.g. created before the table existed, or after resetAll) get their row built
+* from the post and comment tables by the first write or profile read, whichever
+* comes first. Because writers create the row themselves, a write racing with the
+* first profile read is either counted by the built row or added to it, never lost.
+* */
+
+@Service
+@AllArgsConstructor
+@Transactional
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+
+    public void postCreated(User user) {
+        if (user != null) {
+            userStatsRepository.incrementPosts(user.getUserId(), 1, 0);
+        }
+    }
+
+//    The votes on a deleted post no longer count towards the karma of its creator.
+    public void postDeleted(User user, int voteCount) {
+        if (user != null) {
+            userStatsRepository.incrementPosts(user.getUserId(), -1, -voteCount);
+        }
+    }
+
+    public void commentAdded(User user) {
+        if (user != null) {
+            userStatsRepository.incrementComments(user.getUserId(), 1);
+        }
+    }
+
+    public void commentDeleted(User user) {
+        if (user != null) {
+            userStatsRepository.incrementComments(user.getUserId(), -1);
+        }
+    }
+
+    /* Applies the change of vote count of a post to the karma of the post creator. */
+
+    public void karmaChanged(User postCreator, int delta) {
+        if (postCreator != null && delta != 0) {
+            userStatsRepository.incrementKarma(postCreator.getUserId(), delta);
+        }
+    }
+
+    /*
+    * Retrieves the profile summary of the user with the given username. Reads a single
+    * user_stats row, building it first if the user has none yet.
+    * */
+
+    public UserSummaryResponse getSummary(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException(username));
+        UserStats stats = userStatsRepository.findById(user.getUserId())
+                .orElseGet(() -> {
+                    userStatsRepository.initialize(user.getUserId());
+                    return userStatsRepository.findById(user.getUserId())
+                            .orElseThrow(() -> new SpringCommunityException("Could not build stats of " + username));
+                });
+        return UserSummaryResponse.builder()
+                .userName(user.getUsername())
+                .created(user.getCreated())
+                .postCount(stats.getPostCount())
+                .commentCount(stats.getCommentCount())
+                .karma(stats.getKarma())
+                .build();
+    }
+
+    /* Drops all counters so they are rebuilt on the next read, e.g. after rows were written in bulk. */
+
+    public void resetAll() {
+        userStatsRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,182 @@
+package com.vit.community.springapplication.service;
+
+import com.vit.community.springapplication.dto.VoteCompactionReport;
+import com.vit.community.springapplication.exceptions.SpringCommunityException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+* The VoteCompactionService migrates the vote table from one row per vote cast to one
+* row per user per post, while the application keeps serving traffic.
+*
+* Votes used to be appended on every change of direction, so the table holds history
+* nobody reads. The compaction walks the table in vote id ranges of chunk-size rows and
+* deletes every vote which has a newer vote of the same user on the same post, one short
+* transaction per chunk. After every chunk it sleeps so that it is busy at most
+* max-duty-cycle of the time, and rows inserted meanwhile are picked up as the upper
+* bound is re-read per chunk. Finally the unique index uk_vote_post_user is added online,
+* after which VoteService can only update votes in place.
+*
+* The report compares the latest-vote lookup of VoteService on a sample of (post, user)
+* pairs before the compaction and after the index has been added.
+* */
+
+@Service
+@Slf4j
+public class VoteCompactionService {
+
+    static final String UNIQUE_INDEX = "uk_vote_post_user";
+
+    private static final String DELETE_SUPERSEDED = "delete older from vote older join vote newer "
+            + "on newer.post_id = older.post_id and newer.user_id = older.user_id and newer.vote_id > older.vote_id "
+            + "where older.vote_id >= ? and older.vote_id < ?";
+    private static final String SELECT_LATEST_VOTE = "select vote_type from vote where post_id = ? and user_id = ? "
+            + "order by vote_id desc limit 1";
+    private static final String SELECT_SAMPLE = "select post_id, user_id from vote where user_id is not null "
+            + "order by vote_id desc limit ?";
+    private static final String COUNT_INDEX = "select count(*) from information_schema.statistics "
+            + "where table_schema = database() and table_name = 'vote' and index_name = ?";
+    private static final String ADD_INDEX = "alter table vote add unique index " + UNIQUE_INDEX
+            + " (post_id, user_id), algorithm = inplace, lock = none";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int chunkSize;
+    private final double maxDutyCycle;
+    private final int lookupSamples;
+    private volatile VoteCompactionReport report = VoteCompactionReport.builder().status("IDLE").build();
+
+    public VoteCompactionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 @Value("${vote-compaction.chunk-size}") int chunkSize,
+                                 @Value("${vote-compaction.max-duty-cycle}") double maxDutyCycle,
+                                 @Value("${vote-compaction.lookup-samples}") int lookupSamples) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxDutyCycle = Math.min(Math.max(maxDutyCycle, 0.01), 1.0);
+        this.lookupSamples = lookupSamples;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "vote-compaction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /*
+    * Starts the compaction in the background and returns the initial report,
+    * fails if a compaction is already running.
+    * */
+
+    public synchronized VoteCompactionReport start() {
+        if ("RUNNING".equals(report.getStatus())) {
+            throw new SpringCommunityException("Vote compaction is already running");
+        }
+        report = VoteCompactionReport.builder().status("RUNNING").build();
+        try {
+            executor.execute(this::compact);
+        } catch (RejectedExecutionException e) {
+            report = VoteCompactionReport.builder().status("IDLE").build();
+            throw new SpringCommunityException("Vote compaction could not be started");
+        }
+        return report;
+    }
+
+    public VoteCompactionReport getReport() {
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void compact() {
+        long start = System.nanoTime();
+        VoteCompactionReport.VoteCompactionReportBuilder progress = report.toBuilder();
+        try {
+            List<long[]> samples = jdbcTemplate.query(SELECT_SAMPLE,
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)}, lookupSamples);
+            long rowsBefore = countRows();
+            double lookupMicrosBefore = timeLookups(samples);
+            report = progress.rowsBefore(rowsBefore).lookupMicrosBefore(lookupMicrosBefore).build();
+
+            long rowsDeleted = 0;
+            long chunks = 0;
+            Long minId = jdbcTemplate.queryForObject("select min(vote_id) from vote", Long.class);
+            long from = minId != null ? minId : 0;
+            while (from <= maxVoteId()) {
+                long chunkStart = System.nanoTime();
+                long to = from + chunkSize;
+                long lower = from;
+                Integer deleted = transactionTemplate.execute(status -> jdbcTemplate.update(DELETE_SUPERSEDED, lower, to));
+                rowsDeleted += deleted != null ? deleted : 0;
+                chunks++;
+                report = progress.rowsDeleted(rowsDeleted).chunks(chunks)
+                        .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).build();
+                from = to;
+                long busyNanos = System.nanoTime() - chunkStart;
+                TimeUnit.NANOSECONDS.sleep((long) (busyNanos * (1 / maxDutyCycle - 1)));
+            }
+
+            if (!hasUniqueIndex()) {
+                log.info("Adding unique index {} on vote (post_id, user_id)", UNIQUE_INDEX);
+                jdbcTemplate.execute(ADD_INDEX);
+            }
+            double lookupMicrosAfter = timeLookups(samples);
+            progress.uniqueIndex(true)
+                    .rowsAfter(countRows())
+                    .lookupMicrosAfter(lookupMicrosAfter)
+                    .lookupSpeedup(lookupMicrosAfter > 0 ? lookupMicrosBefore / lookupMicrosAfter : 0)
+                    .status("DONE");
+            log.info("Vote compaction deleted {} of {} rows in {} chunks", rowsDeleted, rowsBefore, chunks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.error("Interrupted").status("FAILED");
+        } catch (RuntimeException e) {
+            log.error("Exception occurred while compacting the vote table", e);
+            progress.error(e.getMessage()).status("FAILED");
+        } finally {
+            report = progress.elapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).build();
+        }
+    }
+
+//    Average time of the latest-vote lookup in microseconds, the first pass warms the buffer pool.
+
+    private double timeLookups(List<long[]> samples) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        samples.forEach(sample -> jdbcTemplate.queryForList(SELECT_LATEST_VOTE, sample[0], sample[1]));
+        long start = System.nanoTime();
+        samples.forEach(sample -> jdbcTemplate.queryForList(SELECT_LATEST_VOTE, sample[0], sample[1]));
+        return (System.nanoTime() - start) / 1000.0 / samples.size();
+    }
+
+    private boolean hasUniqueIndex() {
+        Integer count = jdbcTemplate.queryForObject(COUNT_INDEX, Integer.class, UNIQUE_INDEX);
+        return count != null && count > 0;
+    }
+
+    private long countRows() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from vote", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private long maxVoteId() {
+        Long maxId = jdbcTemplate.queryForObject("select max(vote_id) from vote", Long.class);
+        return maxId != null ? maxId : -1;
+    }
+}
@@ -1,6 +1,8 @@
 package com.vit.community.springapplication.service;
 
 import com.vit.community.springapplication.dto.VoteDto;
+import com.vit.community.springapplication.event.DomainEventBus;
+import com.vit.community.springapplication.event.VoteCast;
 import com.vit.community.springapplication.exceptions.PostNotFoundException;
 import com.vit.community.springapplication.exceptions.SpringCommunityException;
 import com.vit.community.springapplication.model.Post;
@@ -9,9 +11,12 @@ import com.vit.community.springapplication.model.Vote;
 import com.vit.community.springapplication.repository.PostRepository;
 import com.vit.community.springapplication.repository.VoteRepository;
 import com.vit.community.springapplication.model.VoteType;
-import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,27 +27,61 @@ import java.util.Optional;
 * */
 
 @Service
-@AllArgsConstructor
-@Transactional
+@Slf4j
 public class VoteService {
 
     private final VoteRepository voteRepository;
     private final PostRepository postRepository;
     private final AuthService authService;
+    private final ContentVersionService contentVersionService;
+    private final DomainEventBus domainEventBus;
+    private final UserStatsService userStatsService;
+    private final TrendingService trendingService;
+    private final TransactionTemplate transactionTemplate;
+
+    public VoteService(VoteRepository voteRepository, PostRepository postRepository, AuthService authService,
+                       ContentVersionService contentVersionService, DomainEventBus domainEventBus,
+                       UserStatsService userStatsService, TrendingService trendingService,
+                       PlatformTransactionManager transactionManager) {
+        this.voteRepository = voteRepository;
+        this.postRepository = postRepository;
+        this.authService = authService;
+        this.contentVersionService = contentVersionService;
+        this.domainEventBus = domainEventBus;
+        this.userStatsService = userStatsService;
+        this.trendingService = trendingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /*
     * Retrieves currently logged in user and post on which user has casted the vote.
-    * Retrieves the latest vote casted by that user on that post.
-    * If latest vote type exists and is same as current casted vote type, then throws
-    * an error, else sets the voteCount on that post accordingly and saves the vote
-    * and post into the database.
+    * Retrieves the vote casted by that user on that post.
+    * If the vote exists and its type is same as current casted vote type, then throws
+    * an error, else sets the voteCount on that post accordingly, updates the existing vote
+    * in place or saves a new one, and saves the post into the database. The change is
+    * added to the karma of the post creator, and a VoteCast event with the new voteCount
+    * is published.
+    *
+    * Two concurrent first votes of the same user on a post both insert a vote, and the
+    * unique key on (post, user) rejects the second insert. That vote is then cast again
+    * in a new transaction, which finds the committed vote and updates it instead.
     * */
 
     public void vote(VoteDto voteDto) {
+        try {
+            transactionTemplate.execute(status -> castVote(voteDto));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Concurrent first vote on post {}, casting the vote again as an update", voteDto.getPostId());
+            transactionTemplate.execute(status -> castVote(voteDto));
+        }
+    }
+
+    private Vote castVote(VoteDto voteDto) {
         Post post = postRepository.findById(voteDto.getPostId())
                 .orElseThrow(() -> new PostNotFoundException("Post Not Found with ID - " + voteDto.getPostId()));
         User currentUser = authService.getCurrentUser();
         Optional<Vote> voteByPostAndUser = voteRepository.findTopByPostAndUserOrderByVoteIdDesc(post, currentUser);
+        int delta;
         if (voteByPostAndUser.isPresent()){
             if(voteByPostAndUser.get().getVoteType()
                     .equals(voteDto.getVoteType())) {
@@ -50,18 +89,27 @@ public class VoteService {
                         + voteDto.getVoteType() + "'d for this post");
             }
             else if (VoteType.UPVOTE.equals(voteDto.getVoteType())) {
-                post.setVoteCount(post.getVoteCount() + 2);
+                delta = 2;
             } else {
-                post.setVoteCount(post.getVoteCount() - 2);
+                delta = -2;
             }
         }
         else if (VoteType.UPVOTE.equals(voteDto.getVoteType())) {
-            post.setVoteCount(post.getVoteCount() + 1);
+            delta = 1;
         } else {
-            post.setVoteCount(post.getVoteCount() - 1);
+            delta = -1;
         }
-        voteRepository.save(mapToVote(voteDto, post, currentUser));
+        Vote vote = voteByPostAndUser.orElseGet(() -> mapToVote(voteDto, post, currentUser));
+        vote.setVoteType(voteDto.getVoteType());
+        post.setVoteCount(post.getVoteCount() + delta);
+        voteRepository.save(vote);
+        userStatsService.karmaChanged(post.getUser(), delta);
+        contentVersionService.touch(post);
         postRepository.save(post);
+        domainEventBus.publish(new VoteCast(post.getPostId(), currentUser.getUserId(), voteDto.getVoteType(),
+                post.getVoteCount()));
+        trendingService.postVoted(post.getPostId(), post.getSubreddit() != null ? post.getSubreddit().getId() : null);
+        return vote;
     }
 
     /* Maps the VoteDto to Vote object for saving into the database */
@@ -74,6 +122,7 @@ public class VoteService {
                 .build();
     }
 
+    @Transactional
     public void deleteAllVotesForPost(Post post){
         List<Vote> votes = voteRepository.findByPost(post);
         for(Vote tempVote : votes){
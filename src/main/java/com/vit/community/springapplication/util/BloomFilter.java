@@ -0,0 +1,99 @@
+package com.vit.community.springapplication.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* A thread-safe Bloom filter over strings.
+*
+* Answers "definitely not present" or "might be present" using a fixed bit array
+* sized from the expected number of insertions and the acceptable false positive rate.
+* Bits are set with compare-and-set, so concurrent put() calls never block readers.
+* */
+
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (optimalBits + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) optimalBits / insertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = fnv1a(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash + GOLDEN_GAMMA);
+        for (int i = 1; i <= hashFunctions; i++) {
+            setBit(((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = fnv1a(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash + GOLDEN_GAMMA);
+        for (int i = 1; i <= hashFunctions; i++) {
+            if (!getBit(((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    private static long fnv1a(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+//    MurmurHash3 64-bit finalizer, spreads the FNV hash over all bits.
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vit.community.springapplication.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+* A thread-safe Count-Min sketch over long keys.
+*
+* Estimates how often each key was added in a fixed depth x width table of counters:
+* every key increments one counter per row and its estimate is the smallest of them.
+* Estimates never undercount and overcount by at most about e / width of the total
+* added, with probability 1 - e^-depth. Counters are updated atomically without locks.
+* */
+
+public class CountMinSketch {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int depth;
+
+    public CountMinSketch(int width, int depth) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("Width and depth must be positive");
+        }
+//        Rounded up to a power of two, so that the column is a bit mask of the hash.
+        this.width = Integer.bitCount(width) == 1 ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /* Adds count occurrences of the key and returns its new estimate. */
+
+    public long add(long key, long count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(key, row), count));
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(key, row)));
+        }
+        return estimate;
+    }
+
+//    Halves all counters, so that older occurrences weigh exponentially less than recent ones.
+    public void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, value -> value >> 1);
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    private int index(long key, int row) {
+        return row * width + (int) (mix(key + (row + 1) * GOLDEN_GAMMA) & (width - 1));
+    }
+
+//    MurmurHash3 64-bit finalizer, gives every row an independent looking hash of the key.
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,64 @@
+package com.vit.community.springapplication.util;
+
+import java.util.*;
+
+/*
+* Tracks the most frequent long keys of a stream in bounded memory.
+*
+* All keys are counted in a Count-Min sketch. The keys whose estimate reaches the smallest
+* count among the tracked candidates become candidates themselves, pushing out the smallest
+* one when there are more than capacity. Most adds are only a few atomic increments, the
+* candidate set is only locked for keys heavy enough to enter it.
+*
+* decay() halves all counts, so the heavy hitters reflect an exponentially decaying window.
+* */
+
+public class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<Long, Long> candidates = new HashMap<>();
+//    Estimate needed to become a candidate, 0 while there is room for more.
+    private volatile long admissionCount;
+
+    public HeavyHitters(int capacity, int sketchWidth, int sketchDepth) {
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth);
+    }
+
+    public void add(long key, long count) {
+        long estimate = sketch.add(key, count);
+        if (estimate < admissionCount) {
+            return;
+        }
+        synchronized (this) {
+            candidates.put(key, estimate);
+            if (candidates.size() > capacity) {
+                candidates.remove(smallestCandidate().getKey());
+                admissionCount = smallestCandidate().getValue();
+            }
+        }
+    }
+
+    /* Returns up to limit heavy hitters with their estimated counts, most frequent first. */
+
+    public synchronized List<Map.Entry<Long, Long>> top(int limit) {
+        List<Map.Entry<Long, Long>> top = new ArrayList<>();
+        for (Map.Entry<Long, Long> candidate : candidates.entrySet()) {
+            top.add(new AbstractMap.SimpleImmutableEntry<>(candidate.getKey(), candidate.getValue()));
+        }
+        top.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        return top.size() > limit ? new ArrayList<>(top.subList(0, limit)) : top;
+    }
+
+    public synchronized void decay() {
+        sketch.halve();
+        candidates.replaceAll((key, count) -> count >> 1);
+        candidates.values().removeIf(count -> count == 0);
+        admissionCount = candidates.size() < capacity ? 0 : smallestCandidate().getValue();
+    }
+
+    private Map.Entry<Long, Long> smallestCandidate() {
+        return Collections.min(candidates.entrySet(), Map.Entry.comparingByValue());
+    }
+}
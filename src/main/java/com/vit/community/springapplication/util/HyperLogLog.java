@@ -0,0 +1,125 @@
+package com.vit.community.springapplication.util;
+
+/*
+* A HyperLogLog sketch, estimating the number of distinct values added to it.
+*
+* Uses 2^precision one-byte registers whatever the number of values, with a standard
+* error of about 1.04 / sqrt(2^precision), e.g. 1.6% for precision 12 in 4 KB. Small
+* cardinalities are estimated with linear counting. Two sketches of the same precision
+* merge into the sketch of the union of their values, so sketches can be built apart
+* and combined later, and merging the same values twice changes nothing.
+* */
+
+public class HyperLogLog {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /* Restores a sketch serialized with toBytes(): the precision followed by the registers. */
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        if (bytes.length != sketch.registers.length + 1) {
+            throw new IllegalArgumentException("Serialized sketch has " + bytes.length + " bytes, expected "
+                    + (sketch.registers.length + 1));
+        }
+        System.arraycopy(bytes, 1, sketch.registers, 0, sketch.registers.length);
+        return sketch;
+    }
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    public synchronized void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+//        The bit below the remaining hash bits bounds the rank when they are all zero.
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + precision
+                    + " and " + other.precision);
+        }
+        byte[] otherRegisters = other.toBytes();
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (otherRegisters[i + 1] > registers[i]) {
+                    registers[i] = otherRegisters[i + 1];
+                }
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        int registerCount = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(registerCount) * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private static double alpha(int registerCount) {
+        switch (registerCount) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / registerCount);
+        }
+    }
+
+    public static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+//        MurmurHash3 64-bit finalizer, the register index is taken from the top bits.
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,116 @@
+package com.vit.community.springapplication.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+* Routes connections between two H2 databases standing in for the primary and a replica.
+* Each database has a one-row table naming it, so every test can tell where a connection went.
+* */
+
+public class ReadWriteRoutingDataSourceTests {
+
+	private static final long STICKINESS_MILLIS = 300;
+
+	private ToggledDataSource replica;
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	@Before
+	public void setUp() throws SQLException {
+		DataSource primary = database("primary");
+		replica = new ToggledDataSource(database("replica"));
+		routingDataSource = new ReadWriteRoutingDataSource(primary, Collections.singletonList(replica),
+				STICKINESS_MILLIS, 60_000);
+	}
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void sendsWritesToThePrimaryAndReadsToTheReplica() throws SQLException {
+		assertEquals("primary", route(false, null));
+		assertEquals("replica", route(true, null));
+	}
+
+	@Test
+	public void keepsReadsOfAUserWhoWroteOnThePrimary() throws SQLException, InterruptedException {
+		assertEquals("primary", route(false, "alice"));
+
+		assertEquals("primary", route(true, "alice"));
+		assertEquals("replica", route(true, "bob"));
+
+		Thread.sleep(STICKINESS_MILLIS + 100);
+		assertEquals("replica", route(true, "alice"));
+	}
+
+	@Test
+	public void fallsBackToThePrimaryWhileTheReplicaIsDown() throws SQLException {
+		replica.down = true;
+		assertEquals("primary", route(true, null));
+
+//		The replica is skipped for the retry period, even once it is back.
+		replica.down = false;
+		assertEquals("primary", route(true, null));
+		assertEquals(1, replica.attempts);
+	}
+
+	private String route(boolean readOnly, String user) throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+		SecurityContextHolder.getContext().setAuthentication(user == null ? null
+				: new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+		try (Connection connection = routingDataSource.getConnection();
+			 Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("select name from node")) {
+			resultSet.next();
+			return resultSet.getString(1);
+		}
+	}
+
+	private static DataSource database(String name) throws SQLException {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement()) {
+			statement.execute("create table if not exists node (name varchar(20))");
+			statement.execute("delete from node");
+			statement.execute("insert into node values ('" + name + "')");
+		}
+		return dataSource;
+	}
+
+	private static class ToggledDataSource extends DelegatingDataSource {
+		volatile boolean down;
+		int attempts;
+
+		ToggledDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			attempts++;
+			if (down) {
+				throw new SQLException("Replica is down");
+			}
+			return super.getConnection();
+		}
+	}
+}
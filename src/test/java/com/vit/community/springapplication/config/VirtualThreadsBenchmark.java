@@ -0,0 +1,101 @@
+package com.vit.community.springapplication.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Compares platform and virtual threads for a burst of blocking tasks, such as requests
+* waiting on MySQL or mails waiting on SMTP. The platform threads are a fixed pool of
+* Tomcat's default size; the virtual threads are started one per task. Both are gated by
+* the same permits, which stand for the connection pool.
+*
+* The virtual thread runs need JDK 21 or newer; on older JDKs pass -p threads=platform.
+*
+* Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+*           -Dexec.mainClass=com.vit.community.springapplication.config.VirtualThreadsBenchmark
+* */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+	private static final int PLATFORM_POOL_SIZE = 200;
+
+	@Param({"platform", "virtual"})
+	public String threads;
+
+	@Param({"1000", "10000"})
+	public int tasks;
+
+	@Param({"10", "100"})
+	public int permits;
+
+	@Param({"1"})
+	public int blockMillis;
+
+	private ExecutorService executor;
+	private Semaphore connections;
+
+	@Setup
+	public void setUp() {
+		if ("virtual".equals(threads)) {
+			if (!VirtualThreads.isSupported()) {
+				throw new IllegalStateException("Virtual threads require JDK 21 or newer");
+			}
+			ThreadFactory threadFactory = VirtualThreads.threadFactory("bench-virtual-");
+			executor = Executors.newCachedThreadPool(threadFactory);
+		} else {
+			executor = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+		}
+		connections = new Semaphore(permits);
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	/* Time until all the tasks of one burst have finished. */
+
+	@Benchmark
+	public long burst() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(tasks);
+		for (int i = 0; i < tasks; i++) {
+			executor.execute(() -> {
+				try {
+					connections.acquire();
+					try {
+						Thread.sleep(blockMillis);
+					} finally {
+						connections.release();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		return done.getCount();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(VirtualThreadsBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,93 @@
+package com.vit.community.springapplication.controller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FileRangeResponderTests {
+
+	private static final String ETAG = "\"abc\"";
+
+	private Path file;
+
+	@Before
+	public void createFile() throws IOException {
+		byte[] content = new byte[500];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) i;
+		}
+		file = Files.write(Files.createTempFile("media", ".bin"), content);
+	}
+
+	@After
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void answersSingleRangeWithPartialContent() throws IOException {
+		MockHttpServletResponse response = send("bytes=100-199", null);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 100-199/500", response.getHeader("Content-Range"));
+		assertEquals(100, response.getContentAsByteArray().length);
+		assertEquals((byte) 100, response.getContentAsByteArray()[0]);
+	}
+
+	@Test
+	public void clampsRangeEndToTheFile() throws IOException {
+		MockHttpServletResponse response = send("bytes=400-9999", null);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("bytes 400-499/500", response.getHeader("Content-Range"));
+		assertEquals(100, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void rejectsRangesOutsideTheFile() throws IOException {
+		for (String range : new String[]{"bytes=1000-", "bytes=500-600", "bytes=-0", "bytes=20-10"}) {
+			MockHttpServletResponse response = send(range, null);
+
+			assertEquals(range, 416, response.getStatus());
+			assertEquals(range, "bytes */500", response.getHeader("Content-Range"));
+			assertEquals(range, 0, response.getContentAsByteArray().length);
+		}
+	}
+
+	@Test
+	public void ignoresRangeWhenIfRangeDoesNotMatch() throws IOException {
+		MockHttpServletResponse response = send("bytes=100-199", "\"old\"");
+
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader("Content-Range"));
+		assertEquals(500, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void honoursRangeWhenIfRangeMatches() throws IOException {
+		MockHttpServletResponse response = send("bytes=0-9", ETAG);
+
+		assertEquals(206, response.getStatus());
+		assertEquals(10, response.getContentAsByteArray().length);
+	}
+
+	private MockHttpServletResponse send(String range, String ifRange) throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/media/1");
+		request.addHeader("Range", range);
+		if (ifRange != null) {
+			request.addHeader("If-Range", ifRange);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FileRangeResponder.send(request, response, file, "application/octet-stream", ETAG);
+		return response;
+	}
+}
@@ -0,0 +1,56 @@
+package com.vit.community.springapplication.repository;
+
+import com.vit.community.springapplication.config.HibernateCacheConfig;
+import com.vit.community.springapplication.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+* Every repository call runs in its own transaction (and session), so a lookup can only
+* avoid SQL by hitting the second-level and query cache.
+* */
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class UserRepositoryCacheTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	public void repeatedLookupByUsernameRunsNoSql() {
+		userRepository.save(new User(null, "cached-user", "password", "cached@example.com", Instant.now(), true));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		userRepository.findByUsername("cached-user");
+		statistics.clear();
+		Optional<User> user = userRepository.findByUsername("cached-user");
+
+		assertTrue(user.isPresent());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+}
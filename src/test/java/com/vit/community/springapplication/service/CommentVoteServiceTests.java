@@ -0,0 +1,30 @@
+package com.vit.community.springapplication.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CommentVoteServiceTests {
+
+	@Test
+	public void scoresCommentsWithoutVotesZero() {
+		assertEquals(0, CommentVoteService.score(0, 0), 1e-9);
+		assertEquals(0, CommentVoteService.score(0, 5), 1e-9);
+	}
+
+	@Test
+	public void ranksManyGoodVotesAboveFewPerfectOnes() {
+		assertTrue(CommentVoteService.score(90, 10) > CommentVoteService.score(1, 0));
+		assertTrue(CommentVoteService.score(10, 0) > CommentVoteService.score(1, 0));
+		assertTrue(CommentVoteService.score(100, 1) > CommentVoteService.score(100, 50));
+	}
+
+	@Test
+	public void staysBelowTheUpvoteRatio() {
+		double score = CommentVoteService.score(900, 100);
+
+		assertTrue(score < 0.9);
+		assertTrue(score > 0.88);
+	}
+}
@@ -0,0 +1,92 @@
+package com.vit.community.springapplication.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Compares the two ways the home feed delivers a post of a subreddit with the given number of
+* subscribers: pushing it into every subscriber timeline on write (one insert per subscriber,
+* the write amplification), against merging the newest posts of the subscribed large subreddits
+* into the timeline page on every read. Helps to choose feed.home.fan-out-threshold.
+*
+* Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+*           -Dexec.mainClass=com.vit.community.springapplication.service.HomeTimelineBenchmark
+* */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HomeTimelineBenchmark {
+
+	private static final int TIMELINE_SIZE = 500;
+	private static final int PAGE_SIZE = 20;
+
+	@Param({"100", "1000", "10000"})
+	public int subscribers;
+
+	@Param({"1", "5"})
+	public int largeSubscriptions;
+
+	private List<HomeTimeline> timelines;
+	private List<List<Long>> largeSubredditPages;
+	private long nextPostId;
+
+	@Setup
+	public void setUp() {
+		List<Long> newest = new ArrayList<>();
+		for (long postId = TIMELINE_SIZE; postId > 0; postId--) {
+			newest.add(postId * 10);
+		}
+		timelines = new ArrayList<>(subscribers);
+		for (int i = 0; i < subscribers; i++) {
+			timelines.add(new HomeTimeline(new HashSet<>(Collections.singletonList(1L)), newest, TIMELINE_SIZE));
+		}
+		largeSubredditPages = new ArrayList<>();
+		for (int subreddit = 1; subreddit <= largeSubscriptions; subreddit++) {
+			List<Long> page = new ArrayList<>();
+			for (long postId = PAGE_SIZE; postId > 0; postId--) {
+				page.add(postId * 10 + subreddit);
+			}
+			largeSubredditPages.add(page);
+		}
+		nextPostId = TIMELINE_SIZE * 10 + 1;
+	}
+
+	/* Cost of one post on write when it is pushed to all the subscribers. */
+
+	@Benchmark
+	public int fanOutOnWrite() {
+		long postId = nextPostId++;
+		for (HomeTimeline timeline : timelines) {
+			timeline.add(postId);
+		}
+		return timelines.size();
+	}
+
+	/* Cost of one home feed page on read when the large subscriptions are merged in. */
+
+	@Benchmark
+	public List<Long> mergeOnRead() {
+		List<List<Long>> sources = new ArrayList<>(largeSubredditPages.size() + 1);
+		sources.add(timelines.get(0).page(null, PAGE_SIZE));
+		sources.addAll(largeSubredditPages);
+		return HomeTimeline.mergeNewest(sources, PAGE_SIZE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(HomeTimelineBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,159 @@
+package com.vit.community.springapplication.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.vit.community.springapplication.dto.LinkPreviewDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+* Runs the LinkPreviewFetcher against pages served by a local JDK HTTP server.
+* */
+
+public class LinkPreviewFetcherTests {
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private String baseUrl;
+
+	@Before
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		serve("/article", "text/html; charset=utf-8", "<html><head><title>Page title</title>"
+				+ "<meta property=\"og:title\" content=\"Tom &amp; Jerry\">"
+				+ "<meta property='og:description' content='An article'>"
+				+ "<meta property=\"og:image\" content=\"/images/cover.png\">"
+				+ "</head><body>Body</body></html>");
+		serve("/plain", "text/html", "<html><head><title> Only a title </title>"
+				+ "<meta name=\"description\" content=\"Meta description\"></head></html>");
+		serve("/image", "image/png", "not a page");
+		StringBuilder large = new StringBuilder("<html><head>");
+		for (int i = 0; i < 1000; i++) {
+			large.append("<!-- padding padding padding -->");
+		}
+		serve("/large", "text/html", large.append("<title>Too late</title></head></html>").toString());
+		server.createContext("/moved", exchange -> {
+			exchange.getResponseHeaders().add("Location", "/article");
+			exchange.sendResponseHeaders(301, -1);
+			exchange.close();
+		});
+		server.createContext("/host", exchange -> {
+			byte[] bytes = ("<html><head><title>" + exchange.getRequestHeaders().getFirst("Host")
+					+ "</title></head></html>").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "text/html");
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream responseBody = exchange.getResponseBody()) {
+				responseBody.write(bytes);
+			}
+		});
+		server.createContext("/slow-loop", exchange -> {
+			try {
+				Thread.sleep(400);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.getResponseHeaders().add("Location", "/slow-loop");
+			exchange.sendResponseHeaders(302, -1);
+			exchange.close();
+		});
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@After
+	public void stopServer() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void extractsOpenGraphMetadataAfterRedirect() throws IOException {
+		LinkPreviewDto preview = fetcher(true).fetch(baseUrl + "/moved").get();
+
+		assertEquals("Tom & Jerry", preview.getTitle());
+		assertEquals("An article", preview.getDescription());
+		assertEquals(baseUrl + "/images/cover.png", preview.getImageUrl());
+		assertEquals("localhost", preview.getSiteName());
+	}
+
+	@Test
+	public void fallsBackToTitleAndDescriptionTags() throws IOException {
+		LinkPreviewDto preview = fetcher(true).fetch(baseUrl + "/plain").get();
+
+		assertEquals("Only a title", preview.getTitle());
+		assertEquals("Meta description", preview.getDescription());
+		assertNull(preview.getImageUrl());
+	}
+
+	@Test
+	public void skipsResponsesWhichAreNotHtml() throws IOException {
+		assertFalse(fetcher(true).fetch(baseUrl + "/image").isPresent());
+	}
+
+	@Test
+	public void readsNoMoreThanMaxBytes() throws IOException {
+		Optional<LinkPreviewDto> preview = fetcher(true).fetch(baseUrl + "/large");
+
+		assertTrue(preview.isPresent());
+		assertNull(preview.get().getTitle());
+	}
+
+	@Test
+	public void sendsTheHostOfTheUrlToTheResolvedAddress() throws IOException {
+		LinkPreviewDto preview = fetcher(true).fetch(baseUrl + "/host").get();
+
+		assertEquals("localhost:" + server.getAddress().getPort(), preview.getTitle());
+	}
+
+	@Test
+	public void enforcesTheTotalTimeoutAcrossRedirects() throws IOException {
+		LinkPreviewFetcher fetcher = new LinkPreviewFetcher(1000, 1000, 1000, 4096, 10, true);
+		long start = System.nanoTime();
+		try {
+			fetcher.fetch(baseUrl + "/slow-loop");
+			fail("Expected the fetch to time out");
+		} catch (SocketTimeoutException e) {
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1500);
+		}
+	}
+
+	@Test
+	public void refusesPrivateHostsUnlessAllowed() throws IOException {
+		assertFalse(fetcher(false).fetch(baseUrl + "/article").isPresent());
+		assertFalse(fetcher(true).fetch("ftp://localhost/article").isPresent());
+	}
+
+	private LinkPreviewFetcher fetcher(boolean allowPrivateHosts) {
+		return new LinkPreviewFetcher(1000, 1000, 5000, 4096, 3, allowPrivateHosts);
+	}
+
+	private void serve(String path, String contentType, String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		server.createContext(path, exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", contentType);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream responseBody = exchange.getResponseBody()) {
+				responseBody.write(bytes);
+			}
+		});
+	}
+}
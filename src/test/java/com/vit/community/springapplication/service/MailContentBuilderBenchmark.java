@@ -0,0 +1,89 @@
+package com.vit.community.springapplication.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+* Compares rendering a notification mail with a full Thymeleaf run per mail (the previous
+* MailContentBuilder.build) against the precompiled MailContentBuilder.
+*
+* Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+*           -Dexec.mainClass=com.vit.community.springapplication.service.MailContentBuilderBenchmark
+* */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailContentBuilderBenchmark {
+
+	private static final String MESSAGE = "alice posted a comment on your post <\"Spring & Hibernate\">";
+
+	private TemplateEngine templateEngine;
+	private MailContentBuilder mailContentBuilder;
+	private List<String> digest;
+
+	@Setup
+	public void setUp() {
+		ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+		templateResolver.setPrefix("templates/");
+		templateResolver.setSuffix(".html");
+		templateResolver.setTemplateMode(TemplateMode.HTML);
+		templateEngine = new TemplateEngine();
+		templateEngine.setTemplateResolver(templateResolver);
+		mailContentBuilder = new MailContentBuilder(templateEngine);
+		digest = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			digest.add(MESSAGE + " #" + i);
+		}
+		if (!process(MESSAGE).equals(mailContentBuilder.build(MESSAGE))) {
+			throw new IllegalStateException("Precompiled template renders differently from Thymeleaf");
+		}
+	}
+
+	@Benchmark
+	public String thymeleafPerMail() {
+		return process(MESSAGE);
+	}
+
+	@Benchmark
+	public String precompiled() {
+		return mailContentBuilder.build(MESSAGE);
+	}
+
+	@Benchmark
+	public String thymeleafDigest() {
+		Context context = new Context();
+		context.setVariable("messages", digest);
+		return templateEngine.process("digestTemplate", context);
+	}
+
+	@Benchmark
+	public String precompiledDigest() {
+		return mailContentBuilder.buildDigest(digest);
+	}
+
+	private String process(String message) {
+		Context context = new Context();
+		context.setVariable("message", message);
+		return templateEngine.process("mailTemplate", context);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(MailContentBuilderBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
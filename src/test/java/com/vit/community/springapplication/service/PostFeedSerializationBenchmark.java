@@ -0,0 +1,83 @@
+package com.vit.community.springapplication.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.vit.community.springapplication.dto.PostResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+* Measures the CPU time per feed page of PostResponses: the previous path (default ObjectMapper
+* serializing a List) against the JsonArrayWriter with Afterburner. Prints the bytes per page,
+* plain and gzip compressed, on setup.
+*
+* Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+*           -Dexec.mainClass=com.vit.community.springapplication.service.PostFeedSerializationBenchmark
+* */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostFeedSerializationBenchmark {
+
+	@Param({"20", "100"})
+	public int pageSize;
+
+	private List<PostResponse> page;
+	private ObjectMapper defaultMapper;
+	private JsonArrayWriter jsonArrayWriter;
+	private ByteArrayOutputStream buffer;
+
+	@Setup
+	public void setUp() throws IOException {
+		page = new ArrayList<>();
+		for (long i = 0; i < pageSize; i++) {
+			page.add(new PostResponse(i, "Post title number " + i, "https://example.com/posts/" + i,
+					"A description of post " + i + " which is a few sentences long, like most posts in the feed.",
+					"user" + (i % 7), "subreddit" + (i % 3), (int) (i * 3 % 50), (int) (i % 12), i * 17,
+					(i % 5) + " hours ago", i % 2 == 0, false, null));
+		}
+		defaultMapper = new ObjectMapper();
+		ObjectMapper afterburnerMapper = new ObjectMapper();
+		afterburnerMapper.registerModule(new AfterburnerModule());
+		jsonArrayWriter = new JsonArrayWriter(afterburnerMapper);
+		buffer = new ByteArrayOutputStream(64 * 1024);
+
+		byte[] json = defaultMapper.writeValueAsBytes(page);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(json);
+		}
+		System.out.printf("%n%d posts per page: %d bytes, %d bytes gzip%n", pageSize, json.length, compressed.size());
+	}
+
+	@Benchmark
+	public byte[] defaultMapperList() throws IOException {
+		return defaultMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public int afterburnerStreamedArray() throws IOException {
+		buffer.reset();
+		jsonArrayWriter.writeArray(buffer, PostResponse.class, page.iterator());
+		return buffer.size();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PostFeedSerializationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,60 @@
+package com.vit.community.springapplication.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeavyHittersTests {
+
+	@Test
+	public void findsTheHotKeysInASkewedStream() {
+		HeavyHitters heavyHitters = new HeavyHitters(20, 1024, 4);
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+//			Keys 1 to 5 take half of the traffic, the rest is spread over 100000 keys.
+			long key = random.nextBoolean() ? 1 + random.nextInt(5) : 100 + random.nextInt(100_000);
+			heavyHitters.add(key, 1);
+		}
+
+		List<Long> top = heavyHitters.top(5).stream().map(Map.Entry::getKey).collect(toList());
+		assertEquals(5, top.size());
+		for (long key = 1; key <= 5; key++) {
+			assertTrue("Missing hot key " + key, top.contains(key));
+		}
+	}
+
+	@Test
+	public void decayLetsNewHotKeysOvertakeOldOnes() {
+		HeavyHitters heavyHitters = new HeavyHitters(10, 1024, 4);
+		for (int i = 0; i < 1000; i++) {
+			heavyHitters.add(1, 1);
+		}
+		for (int i = 0; i < 4; i++) {
+			heavyHitters.decay();
+		}
+		for (int i = 0; i < 200; i++) {
+			heavyHitters.add(2, 1);
+		}
+
+		assertEquals(Long.valueOf(2), heavyHitters.top(1).get(0).getKey());
+	}
+
+	@Test
+	public void countMinSketchNeverUndercounts() {
+		CountMinSketch sketch = new CountMinSketch(100, 4);
+		for (long key = 0; key < 1000; key++) {
+			sketch.add(key, key % 7 + 1);
+		}
+
+		assertEquals(128, sketch.getWidth());
+		for (long key = 0; key < 1000; key++) {
+			assertTrue(sketch.estimate(key) >= key % 7 + 1);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package com.vit.community.springapplication.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+* Measures the views per second one post sketch can take from 4 threads, for each precision,
+* and prints the error of the estimates for 10^2 to 10^6 distinct viewers on setup.
+*
+* Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+*           -Dexec.mainClass=com.vit.community.springapplication.util.HyperLogLogBenchmark
+* */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HyperLogLogBenchmark {
+
+	@Param({"10", "11", "12", "14"})
+	public int precision;
+
+	private HyperLogLog sketch;
+
+	@Setup
+	public void setUp() {
+		sketch = new HyperLogLog(precision);
+		StringBuilder report = new StringBuilder("precision " + precision + " (" + (1 << precision) + " bytes):");
+		for (int distinct = 100; distinct <= 1_000_000; distinct *= 10) {
+			HyperLogLog accuracy = new HyperLogLog(precision);
+			for (int i = 0; i < distinct; i++) {
+				accuracy.add("user:" + i);
+			}
+			report.append(String.format(" %d -> %+.2f%%", distinct,
+					100.0 * (accuracy.estimate() - distinct) / distinct));
+		}
+		System.out.println(report);
+	}
+
+	@State(Scope.Thread)
+	public static class Viewers {
+		long next = Thread.currentThread().getId() << 40;
+	}
+
+	@Benchmark
+	public void recordView(Viewers viewers) {
+		sketch.addHash(HyperLogLog.hash("user:" + viewers.next++));
+	}
+
+	@Benchmark
+	public long estimate() {
+		return sketch.estimate();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(HyperLogLogBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
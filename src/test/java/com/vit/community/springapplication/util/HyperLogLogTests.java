@@ -0,0 +1,64 @@
+package com.vit.community.springapplication.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HyperLogLogTests {
+
+	@Test
+	public void estimatesDistinctValuesWithinTheExpectedError() {
+		HyperLogLog sketch = new HyperLogLog(12);
+		for (int repeat = 0; repeat < 3; repeat++) {
+			for (int i = 0; i < 100_000; i++) {
+				sketch.add("user:" + i);
+			}
+		}
+
+//		Standard error at precision 12 is 1.6%, allow three times that.
+		assertEquals(100_000, sketch.estimate(), 100_000 * 0.05);
+	}
+
+	@Test
+	public void countsSmallCardinalitiesNearlyExactly() {
+		HyperLogLog sketch = new HyperLogLog(11);
+		for (int i = 0; i < 50; i++) {
+			sketch.add("ip:10.0.0." + i);
+			sketch.add("ip:10.0.0." + i);
+		}
+
+		assertEquals(50, sketch.estimate(), 1);
+	}
+
+	@Test
+	public void mergeEstimatesTheUnion() {
+		HyperLogLog first = new HyperLogLog(12);
+		HyperLogLog second = new HyperLogLog(12);
+		for (int i = 0; i < 20_000; i++) {
+			first.add("user:" + i);
+			second.add("user:" + (i + 10_000));
+		}
+		first.merge(second);
+		long union = first.estimate();
+		first.merge(second);
+
+		assertEquals(30_000, union, 30_000 * 0.05);
+		assertEquals(union, first.estimate());
+	}
+
+	@Test
+	public void survivesSerialization() {
+		HyperLogLog sketch = new HyperLogLog(10);
+		for (int i = 0; i < 5000; i++) {
+			sketch.add("user:" + i);
+		}
+		byte[] bytes = sketch.toBytes();
+		HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+
+		assertEquals(1025, bytes.length);
+		assertArrayEquals(bytes, restored.toBytes());
+		assertTrue(restored.estimate() == sketch.estimate());
+	}
+}